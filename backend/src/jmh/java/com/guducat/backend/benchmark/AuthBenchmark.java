@@ -0,0 +1,189 @@
+package com.guducat.backend.benchmark;
+
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.servlet.util.SaTokenContextJakartaServletUtil;
+import cn.dev33.satoken.stp.StpInterface;
+import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.mapper.UserMapper;
+import com.guducat.backend.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证相关热点路径的耗时，基于 H2 内存数据库启动完整的 Spring 应用：
+ * <ul>
+ *     <li>login*：UserService.login，包含数据库查询、经由哈希线程池的密码校验与 Sa-Token 登录</li>
+ *     <li>interceptor*：按 DispatcherServlet 的方式查找处理器并依次执行拦截器链的 preHandle，分别覆盖无需鉴权、需要登录、需要管理员角色三类路由</li>
+ *     <li>getRoleList*：StpInterfaceImpl.getRoleList，分别覆盖角色缓存命中与未命中</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    /**
+     * 新注册密码使用的 PBKDF2 迭代次数
+     */
+    @Param({"1000", "100000"})
+    private int passwordIterations;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private StpInterface stpInterface;
+
+    private LocalCache<?, ?> roleCache;
+
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private Long userId;
+
+    private String userToken;
+
+    private String adminToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("app.password.iterations=" + passwordIterations);
+        userService = context.getBean(UserService.class);
+        stpInterface = context.getBean(StpInterface.class);
+        roleCache = context.getBean("roleCache", LocalCache.class);
+        handlerMapping = context.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+
+        userId = userService.register("bench_user", "Bench User", "bench_user@example.com", null, PASSWORD);
+        Long adminId = userService.register("bench_admin", "Bench Admin", "bench_admin@example.com", null, PASSWORD);
+        context.getBean(UserMapper.class).updateRoleByIds(List.of(adminId), "admin");
+        roleCache.invalidateAll();
+
+        userToken = StpUtil.getStpLogic().createLoginSession(userId);
+        adminToken = StpUtil.getStpLogic().createLoginSession(adminId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 登录所需的请求上下文，每个线程一个
+     */
+    @State(Scope.Thread)
+    public static class LoginContext {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SaTokenContextMockUtil.setMockContext();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            SaTokenContextMockUtil.clearContext();
+        }
+    }
+
+    /**
+     * 登录成功，随后注销以免会话无限累积（注销的耗时一并计入）
+     */
+    @Benchmark
+    public boolean loginSuccess(LoginContext loginContext) {
+        boolean success = userService.login("bench_user", PASSWORD);
+        StpUtil.logout();
+        return success;
+    }
+
+    /**
+     * 密码错误
+     */
+    @Benchmark
+    public boolean loginWrongPassword(LoginContext loginContext) {
+        return userService.login("bench_user", "wrong-password");
+    }
+
+    /**
+     * 账号不存在（命中不存在账号负缓存）
+     */
+    @Benchmark
+    public boolean loginUnknownAccount(LoginContext loginContext) {
+        return userService.login("no_such_user", PASSWORD);
+    }
+
+    @Benchmark
+    public boolean interceptorPublic() throws Exception {
+        return preHandle("/user/doLogin", null);
+    }
+
+    @Benchmark
+    public boolean interceptorLogin() throws Exception {
+        return preHandle("/user/getInfo", userToken);
+    }
+
+    @Benchmark
+    public boolean interceptorAdmin() throws Exception {
+        return preHandle("/admin/users", adminToken);
+    }
+
+    @Benchmark
+    public List<String> getRoleListCached() {
+        return stpInterface.getRoleList(userId, StpUtil.TYPE);
+    }
+
+    /**
+     * 角色缓存未命中，每次都查询数据库
+     */
+    @Benchmark
+    public List<String> getRoleListUncached() {
+        roleCache.invalidateAll();
+        return stpInterface.getRoleList(userId, StpUtil.TYPE);
+    }
+
+    /**
+     * 与 Sa-Token 上下文过滤器和 DispatcherServlet 一致：设置请求上下文、查找处理器、依次执行拦截器
+     */
+    private boolean preHandle(String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (token != null) {
+            request.addHeader(StpUtil.getTokenName(), token);
+        }
+        SaTokenContextJakartaServletUtil.setContext(request, response);
+        try {
+            HandlerExecutionChain chain = handlerMapping.getHandler(request);
+            for (HandlerInterceptor interceptor : chain.getInterceptorList()) {
+                if (!interceptor.preHandle(request, response, chain.getHandler())) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            SaTokenContextJakartaServletUtil.clearContext();
+        }
+    }
+}
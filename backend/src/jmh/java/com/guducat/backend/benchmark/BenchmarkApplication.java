@@ -0,0 +1,48 @@
+package com.guducat.backend.benchmark;
+
+import com.guducat.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的 Spring 应用上下文。
+ * <p>
+ * 基于 test 配置（H2 内存数据库）启动，应用与管理端点均使用随机端口，并关闭 SQL 日志与 Sa-Token 操作日志，避免日志输出计入耗时。
+ * test 配置中的只读副本是一个空库，这里把副本组指向主库，读方法也读取主库中准备好的数据。
+ * 认证接口限流也关闭，反复登录的基准不会被限流拒绝，限流器自身的开销见 RateLimiterBenchmark。
+ * 这些配置以命令行参数传入，优先级高于 application-test.properties。
+ * </p>
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * 启动应用
+     *
+     * @param properties 额外的配置项，格式为 key=value
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN",
+                "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                "--sa-token.is-log=false",
+                "--app.datasource.replica-group=mysql",
+                "--app.rate-limit.enabled=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("test")
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,71 @@
+package com.guducat.backend.benchmark;
+
+import cn.dev33.satoken.secure.SaSecureUtil;
+import com.guducat.backend.security.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希算法的单次计算耗时。
+ * <p>
+ * scheme 取值为存储格式：legacy-sha256 为旧版无盐 SHA-256（SaSecureUtil.sha256），
+ * pbkdf2-N 为 N 次迭代的 PBKDF2-HMAC-SHA256。新增哈希算法时在此增加对应的取值。
+ * 只测算法本身，不经过 PasswordHashingService 的线程池。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"legacy-sha256", "pbkdf2-1000", "pbkdf2-10000", "pbkdf2-100000"})
+    private String scheme;
+
+    private int iterations;
+
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        if (scheme.equals("legacy-sha256")) {
+            storedHash = SaSecureUtil.sha256(PASSWORD);
+        } else if (scheme.startsWith("pbkdf2-")) {
+            iterations = Integer.parseInt(scheme.substring("pbkdf2-".length()));
+            storedHash = PasswordHasher.hash(PASSWORD, iterations);
+        } else {
+            throw new IllegalArgumentException("未知的哈希格式：" + scheme);
+        }
+    }
+
+    /**
+     * 计算新哈希（注册、修改密码）
+     */
+    @Benchmark
+    public String hash() {
+        return iterations == 0 ? SaSecureUtil.sha256(PASSWORD) : PasswordHasher.hash(PASSWORD, iterations);
+    }
+
+    /**
+     * 校验密码（登录）
+     */
+    @Benchmark
+    public boolean matches() {
+        return PasswordHasher.matches(PASSWORD, storedHash);
+    }
+}
@@ -0,0 +1,66 @@
+package com.guducat.backend.benchmark;
+
+import com.guducat.backend.security.SlidingWindowRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证接口限流器在并发下的单次判定耗时。
+ * <p>
+ * distinctKeys 模拟大量不同客户端，各自远未超限；hotKey 模拟所有线程同时请求同一个账号，
+ * 计数槽上的 CAS 竞争最激烈，超限后走拒绝路径。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    /**
+     * 每行的计数槽数
+     */
+    @Param({"16384"})
+    private int slots;
+
+    private SlidingWindowRateLimiter limiter;
+
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new SlidingWindowRateLimiter(1_000_000, Duration.ofMinutes(5), slots);
+        keys = new String[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean distinctKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean hotKey() {
+        return limiter.tryAcquire("admin");
+    }
+}
@@ -0,0 +1,78 @@
+package com.guducat.backend.benchmark;
+
+import com.guducat.backend.security.ResetTokenStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重置密码令牌校验在并发下的耗时（对应 UserService.verifyResetToken）。
+ * <p>
+ * verifyOnly 为多线程只读校验；mixed 组模拟校验与签发并发进行：7 个线程校验，1 个线程持续签发新令牌，
+ * 签发会覆盖已有令牌，因此 mixed 组中的部分校验结果为 false，这不影响耗时的比较。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResetTokenBenchmark {
+
+    /**
+     * 预先签发的令牌数
+     */
+    @Param({"1000", "100000"})
+    private int tokenCount;
+
+    private ResetTokenStore store;
+
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        store = new ResetTokenStore(Duration.ofMinutes(30), tokenCount * 2, System::nanoTime);
+        tokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = store.issue((long) i);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean verifyOnly() {
+        int userId = ThreadLocalRandom.current().nextInt(tokenCount);
+        return store.verify((long) userId, tokens[userId]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public boolean mixedVerify() {
+        int userId = ThreadLocalRandom.current().nextInt(tokenCount);
+        return store.verify((long) userId, tokens[userId]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public String mixedIssue() {
+        return store.issue((long) ThreadLocalRandom.current().nextInt(tokenCount));
+    }
+}
@@ -0,0 +1,110 @@
+package com.guducat.backend.benchmark;
+
+import cn.dev33.satoken.spring.pathmatch.SaPathPatternParserUtil;
+import com.guducat.backend.security.RouteRule;
+import com.guducat.backend.security.RouteRuleTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拦截器路由分发开销：预编译鉴权表 vs 逐条 SaRouter.match。
+ * <p>
+ * 逐条匹配的基线与原拦截器中的 SaRouter.match 链等价：Spring Boot 环境下 Sa-Token 的路由匹配器为
+ * SaPathPatternParserUtil.match，每个请求对每条规则都要解析并匹配一次。
+ * 只比较"请求路径 → 规则"这一步，不包含 StpUtil 的登录与角色校验。
+ * </p>
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="RouteRuleBenchmark -rf json -rff target/jmh-route.json"
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteRuleBenchmark {
+
+    /**
+     * 规则总数，包含项目中实际的 5 条规则
+     */
+    @Param({"5", "50", "500"})
+    private int ruleCount;
+
+    // 每次调用依次分发的请求路径：完全匹配、通配匹配、无规则
+    private final String[] paths = {
+            "/user/getInfo",
+            "/admin/users/42",
+            "/user/doLogin",
+            "/module7/action3",
+    };
+
+    private RouteRuleTable table;
+
+    private List<String> patterns;
+
+    private List<RouteRule> rules;
+
+    @Setup
+    public void setUp() {
+        RouteRuleTable.Builder builder = RouteRuleTable.builder();
+        patterns = new ArrayList<>();
+        rules = new ArrayList<>();
+
+        add(builder, "/user/getInfo", RouteRule.LOGIN);
+        add(builder, "/user/updateInfo", RouteRule.LOGIN);
+        add(builder, "/user/isAdmin", RouteRule.LOGIN);
+        add(builder, "/user/deleteAccount", RouteRule.LOGIN);
+        add(builder, "/admin/**", RouteRule.role("admin"));
+
+        // 其余规则模拟按模块划分的接口：每个模块 9 个完整路径加一个通配
+        for (int i = 0; patterns.size() < ruleCount; i++) {
+            for (int j = 0; j < 9 && patterns.size() < ruleCount; j++) {
+                add(builder, "/module" + i + "/action" + j, RouteRule.LOGIN);
+            }
+            if (patterns.size() < ruleCount) {
+                add(builder, "/module" + i + "/internal/**", RouteRule.role("ops"));
+            }
+        }
+        table = builder.build();
+    }
+
+    @Benchmark
+    public void compiledTable(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(table.resolve(path));
+        }
+    }
+
+    @Benchmark
+    public void matchChain(Blackhole blackhole) {
+        for (String path : paths) {
+            // 与 SaRouter.match 链一致：每条规则都要匹配，命中的规则依次执行
+            for (int i = 0; i < patterns.size(); i++) {
+                if (SaPathPatternParserUtil.match(patterns.get(i), path)) {
+                    blackhole.consume(rules.get(i));
+                }
+            }
+        }
+    }
+
+    private void add(RouteRuleTable.Builder builder, String pattern, RouteRule rule) {
+        builder.add(pattern, rule);
+        patterns.add(pattern);
+        rules.add(rule);
+    }
+}
@@ -0,0 +1,97 @@
+package com.guducat.backend.benchmark;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import com.guducat.backend.session.FileSaTokenDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 会话持久化到文件时的启动恢复耗时（对应 FileSaTokenDao.init）。
+ * <p>
+ * 每个会话写入两条数据，与 Sa-Token 登录时写入的内容相当：token → 登录ID，以及序列化后的账号会话。
+ * layout 为 log 时全部数据都在日志中（从未压缩），为 snapshot 时先压缩为快照，分别对应恢复的最坏与常见情况。
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SessionStoreRecoveryBenchmark {
+
+    /**
+     * 会话数
+     */
+    @Param({"100000", "1000000"})
+    private int sessions;
+
+    /**
+     * 数据在磁盘上的形式
+     */
+    @Param({"log", "snapshot"})
+    private String layout;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session-store-benchmark");
+        FileSaTokenDao dao = new FileSaTokenDao(directory, Long.MAX_VALUE);
+        dao.init();
+        for (int i = 0; i < sessions; i++) {
+            String token = UUID.randomUUID().toString();
+            dao.set("satoken:login:token:" + token, String.valueOf(i), 2592000);
+            dao.set("satoken:login:session:" + i, sessionJson(i, token), SaTokenDao.NEVER_EXPIRE);
+        }
+        if ("snapshot".equals(layout)) {
+            dao.compact();
+        }
+        dao.destroy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int recover() {
+        FileSaTokenDao dao = new FileSaTokenDao(directory, Long.MAX_VALUE);
+        dao.init();
+        int size = dao.size();
+        dao.destroy();
+        return size;
+    }
+
+    private static String sessionJson(int loginId, String token) {
+        return "{\"@class\":\"cn.dev33.satoken.session.SaSession\",\"id\":\"satoken:login:session:" + loginId
+                + "\",\"type\":\"Account-Session\",\"loginType\":\"login\",\"loginId\":[\"java.lang.Long\"," + loginId
+                + "],\"token\":null,\"historyTerminalCount\":1,\"createTime\":1700000000000,\"dataMap\":{\"@class\":\"java.util.concurrent.ConcurrentHashMap\"},"
+                + "\"terminalList\":[\"java.util.Vector\",[{\"@class\":\"cn.dev33.satoken.session.SaTerminalInfo\",\"index\":1,\"tokenValue\":\""
+                + token + "\",\"deviceType\":\"DEF\",\"deviceId\":null,\"extraData\":null,\"createTime\":1700000000000}]]}";
+    }
+}
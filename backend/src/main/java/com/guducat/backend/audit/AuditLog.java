@@ -0,0 +1,267 @@
+package com.guducat.backend.audit;
+
+import com.guducat.backend.entity.LoginAudit;
+import com.guducat.backend.mapper.LoginAuditMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 认证审计日志：登录成功与失败、注册、重置密码、注销与删除账号、修改角色。
+ * <p>
+ * 请求线程只把事件写入有界无锁环形缓冲区，由后台线程 audit-writer 批量取出，以一条多行 INSERT 写入 login_audit 表：
+ * 攒满 batchSize 条立即写入，否则最早的事件等待 flushInterval 后写入。缓冲区满时按 overflowPolicy 处理：
+ * </p>
+ * <ul>
+ *     <li>drop：丢弃事件并计数，请求不受数据库写入速度影响；</li>
+ *     <li>block：请求线程等待缓冲区腾出空间，审计记录不丢失，但数据库变慢时登录等请求随之变慢。</li>
+ * </ul>
+ * <p>
+ * 写入失败的批次记录日志并计数后丢弃，不重试。容器关闭时在 Web 服务器停止之后停止，写完缓冲区中剩余的事件。
+ * </p>
+ */
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    /**
+     * 管理员修改用户角色的事件类型，其余事件类型与 {@link com.guducat.backend.metrics.AuthMetrics} 的操作名相同
+     */
+    public static final String UPDATE_ROLE = "update_role";
+
+    // 账号列长度
+    private static final int MAX_ACCOUNT_LENGTH = 100;
+
+    // 关闭时等待写入线程结束的最长时间
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    // block 策略下每次等待的时间
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private final LoginAuditMapper mapper;
+
+    private final AuditRingBuffer<LoginAudit> buffer;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final LongAdder recordedCount = new LongAdder();
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private volatile boolean running;
+
+    private volatile Thread writer;
+
+    /**
+     * @param bufferSize 缓冲区容量，向上取整为 2 的幂
+     * @param batchSize 每条 INSERT 写入的最大行数
+     * @param flushIntervalMillis 事件在缓冲区中等待的最长时间（毫秒）
+     * @param overflowPolicy 缓冲区满时的处理策略：drop 或 block
+     */
+    public AuditLog(LoginAuditMapper mapper,
+                    @Value("${app.audit.buffer-size:65536}") int bufferSize,
+                    @Value("${app.audit.batch-size:500}") int batchSize,
+                    @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMillis,
+                    @Value("${app.audit.overflow-policy:drop}") String overflowPolicy) {
+        this.mapper = mapper;
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * 记录一条审计事件，客户端 IP 取自当前请求
+     *
+     * @param eventType 事件类型，见 {@link com.guducat.backend.metrics.AuthMetrics} 中的操作名
+     * @param success 操作是否成功
+     * @param userId 涉及的用户ID，未知时为 null
+     * @param account 提交的账号，未知时为 null
+     */
+    public void record(String eventType, boolean success, Long userId, String account) {
+        if (account != null && account.length() > MAX_ACCOUNT_LENGTH) {
+            account = account.substring(0, MAX_ACCOUNT_LENGTH);
+        }
+        LoginAudit event = new LoginAudit(eventType, success, userId, account, currentIp(), Instant.now());
+        recordedCount.increment();
+        if (!buffer.offer(event) && !awaitOffer(event)) {
+            droppedCount.increment();
+            return;
+        }
+        // 已攒满一批，提前唤醒写入线程
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * 缓冲区满时按策略等待，已停止时不再等待
+     *
+     * @return 最终是否写入缓冲区
+     */
+    private boolean awaitOffer(LoginAudit event) {
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            return false;
+        }
+        LockSupport.unpark(writer);
+        while (running) {
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String currentIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread thread = writer;
+        if (!running || thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("审计日志未能在 {} 毫秒内写完，剩余约 {} 条", STOP_TIMEOUT_MILLIS, buffer.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 在 Web 服务器（优雅关闭与停止的阶段分别为 DEFAULT_PHASE - 1024 和 - 2048）之后停止，
+     * 处理中的请求产生的事件也能写入
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<LoginAudit> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + flushIntervalNanos;
+            }
+            if (batch.size() >= batchSize || now - deadline >= 0) {
+                write(batch);
+                deadline = 0;
+            } else {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+        }
+        // 停止后写完剩余的事件
+        do {
+            write(batch);
+        } while (buffer.drainTo(batch, batchSize) > 0);
+    }
+
+    private void write(List<LoginAudit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            mapper.insertBatch(batch);
+            writtenCount.add(batch.size());
+        } catch (RuntimeException e) {
+            failedCount.add(batch.size());
+            log.warn("写入审计日志失败，丢弃 {} 条", batch.size(), e);
+        }
+        batch.clear();
+    }
+
+    /**
+     * 记录的事件数
+     */
+    public long getRecordedCount() {
+        return recordedCount.sum();
+    }
+
+    /**
+     * 已写入数据库的事件数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * 因缓冲区已满被丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 因写入失败被丢弃的事件数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * 缓冲区中等待写入的事件数（近似值）
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,100 @@
+package com.guducat.backend.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区，多个线程写入、单个线程读取。
+ * <p>
+ * 每个槽位带一个序号：序号等于写入位置时槽位空闲，写线程以 CAS 抢占写入位置后写入元素并把序号加一发布；
+ * 序号等于读取位置加一时元素已发布，读线程取走元素后把序号推进一圈，槽位再次空闲。
+ * 写入不加锁，满时立即返回 false，由调用方决定丢弃还是等待。
+ * </p>
+ *
+ * @param <E> 元素类型
+ */
+class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // 只由读线程修改
+    private volatile long head;
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 写入元素
+     *
+     * @return 缓冲区已满时返回 false
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // diff > 0：其他写线程已抢占该位置，重新读取
+        }
+    }
+
+    /**
+     * 取出最多 max 个已发布的元素，只能由一个线程调用
+     *
+     * @return 取出的元素数
+     */
+    int drainTo(List<? super E> target, int max) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.lazySet(index, position + mask + 1);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * 已写入尚未取出的元素数（近似值）
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.guducat.backend.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 字符串布隆过滤器。
+ * <p>
+ * {@link #mightContain} 返回 false 时元素一定不存在；返回 true 时元素可能存在，误判率由容量与目标误判率决定。
+ * 位数组基于 {@link AtomicLongArray}，写入和读取都不加锁，可被多个线程同时访问。
+ * 位置由两个 64 位哈希组合得出，位数组的每一位都可能被用到（位数上限约 2^37，受数组长度限制）。
+ * 不支持删除，元素被删除后需要重建过滤器才能去除对应的误判。
+ * </p>
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    private final LongAdder insertCount = new LongAdder();
+
+    /**
+     * @param expectedInsertions 预计元素数
+     * @param falsePositiveRate 目标误判率，取值 (0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions 必须大于 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate 必须在 (0, 1) 之间");
+        }
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        long bitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 加入元素
+     */
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertCount.increment();
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 累计写入次数（重复元素会重复计数）
+     */
+    public long getInsertCount() {
+        return insertCount.sum();
+    }
+
+    private long index(long combinedHash) {
+        // 双重哈希：第 i 个位置为 h1 + i * h2，取 64 位非负值后对位数取模
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * 对 UTF-8 字节计算 64 位 FNV-1a 哈希，再经 MurmurHash3 的 fmix64 打散高低位
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    /**
+     * 由第一个哈希派生第二个哈希，取奇数保证步长不为 0
+     */
+    private static long secondHash(long h1) {
+        return fmix64(h1 + 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    /**
+     * MurmurHash3 的 fmix64
+     */
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
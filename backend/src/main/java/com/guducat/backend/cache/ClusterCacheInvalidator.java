@@ -0,0 +1,100 @@
+package com.guducat.backend.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 在多个节点之间广播本地缓存的失效。
+ * <p>
+ * 注册的缓存在 {@link LocalCache#invalidate} 时发布一条 {@code cache:<缓存名>:<键>} 消息，
+ * 各节点收到后调用对应缓存的 {@link LocalCache#invalidateLocally}。例如管理员在一个节点降级用户后，
+ * 其他节点缓存的角色随即失效，而不是等到 TTL 到期。
+ * </p>
+ * <p>
+ * 发布失败（如 Redis 不可用）时只记录日志，其他节点的缓存在 TTL 到期后失效。
+ * </p>
+ */
+@Slf4j
+public class ClusterCacheInvalidator {
+
+    private static final String PREFIX = "cache:";
+
+    private final Consumer<String> publisher;
+
+    // 格式：<缓存名, 收到消息时的失效操作>
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * @param publisher 向所有节点发布消息，各节点收到后调用 {@link #onMessage}
+     */
+    public ClusterCacheInvalidator(Consumer<String> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * 注册需要广播失效的缓存，缓存名中不能含有冒号
+     *
+     * @param cache 缓存
+     * @param keyParser 把消息中的键（{@code String.valueOf(key)}）还原为缓存的键
+     */
+    public <K> void register(LocalCache<K, ?> cache, Function<String, K> keyParser) {
+        register(cache, keyParser, key -> {
+        });
+    }
+
+    /**
+     * 注册需要广播失效的缓存，收到失效消息时先调用 beforeInvalidate 再使本地条目失效，
+     * 例如让随后的重新加载读主库，而不是读尚未同步的副本
+     *
+     * @param cache 缓存
+     * @param keyParser 把消息中的键（{@code String.valueOf(key)}）还原为缓存的键
+     * @param beforeInvalidate 收到失效消息时、使本地条目失效之前调用
+     */
+    public <K> void register(LocalCache<K, ?> cache, Function<String, K> keyParser, Consumer<? super K> beforeInvalidate) {
+        String name = cache.getName();
+        if (name.indexOf(':') >= 0) {
+            throw new IllegalArgumentException("缓存名不能含有冒号：" + name);
+        }
+        handlers.put(name, message -> {
+            K key = keyParser.apply(message);
+            beforeInvalidate.accept(key);
+            cache.invalidateLocally(key);
+        });
+        String prefix = PREFIX + name + ':';
+        cache.setInvalidationListener(key -> publish(prefix + key));
+    }
+
+    /**
+     * 处理收到的消息，不是缓存失效消息或缓存未注册时忽略
+     */
+    public void onMessage(String message) {
+        if (!message.startsWith(PREFIX)) {
+            return;
+        }
+        int separator = message.indexOf(':', PREFIX.length());
+        if (separator < 0) {
+            return;
+        }
+        Consumer<String> handler = handlers.get(message.substring(PREFIX.length(), separator));
+        if (handler == null) {
+            return;
+        }
+        try {
+            handler.accept(message.substring(separator + 1));
+        } catch (RuntimeException e) {
+            log.warn("无法处理缓存失效消息：{}", message, e);
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            publisher.accept(message);
+        } catch (RuntimeException e) {
+            log.warn("广播缓存失效失败，其他节点将在缓存过期后更新：{}", message, e);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.guducat.backend.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内的有界本地缓存。
+ * <p>
+ * 每个条目写入后在 TTL 到期时失效；条目数超过上限时按 LRU 顺序淘汰最久未访问的条目。
+ * 同时统计命中、未命中、淘汰次数与加载耗时，便于观察缓存效果。
+ * </p>
+ * <p>
+ * 通过 {@link #get(Object, Function)} 加载时，同一个键的并发未命中只会执行一次加载，其余线程等待并共享结果；
+ * 加载期间该键被 {@link #invalidate} 时，加载结果不会写入缓存，避免旧数据覆盖失效操作。
+ * </p>
+ * <p>
+ * 缓存外读取的数据可先取 {@link #invalidationStamp()}，再用 {@link #putIfNotInvalidatedSince} 写入，
+ * 读取期间发生过失效时放弃写入，同样避免旧数据覆盖失效操作。
+ * </p>
+ * <p>
+ * 值为 {@code null} 的结果不会被缓存，调用方需要缓存"不存在"时应自行使用占位值。
+ * </p>
+ * <p>
+ * 设置了失效监听器时，{@link #invalidate} 在本地失效后通知监听器，用于把失效广播到其他节点；
+ * 收到其他节点的通知时调用 {@link #invalidateLocally}，不再次通知。
+ * </p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalCache<K, V> {
+
+    private final String name;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier clock;
+
+    // 按访问顺序排列的 LinkedHashMap，最久未访问的条目在头部
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    // 正在加载中的键，同一个键的并发未命中共享同一次加载
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    // 失效次数，只在持有 entries 锁时修改
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // 失效监听器，为 null 时不通知
+    private volatile Consumer<? super K> invalidationListener;
+
+    public LocalCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    /**
+     * @param clock 纳秒时钟，测试时可替换为可控时钟
+     */
+    public LocalCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize 必须大于 0");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LocalCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存，不存在或已过期时返回 null
+     */
+    public V get(K key) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(now)) {
+                    hitCount.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入缓存。
+     * <p>
+     * loader 在锁外执行；同一个键同时只有一个线程执行加载，其余线程等待该次加载的结果。
+     * loader 不能再次读取同一个缓存的同一个键。
+     * </p>
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        long start = clock.getAsLong();
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            loading.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        totalLoadNanos.add(clock.getAsLong() - start);
+        loadCount.increment();
+
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            // 加载期间被 invalidate 时 loading 中已没有本次加载，不写入缓存
+            if (loading.remove(key, flight) && value != null) {
+                entries.put(key, entry);
+            }
+        }
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * 写入缓存
+     */
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * 当前的失效戳，配合 {@link #putIfNotInvalidatedSince} 使用
+     */
+    public long invalidationStamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * 取得失效戳之后缓存没有发生过失效时才写入，用于写入在缓存外读取的数据
+     *
+     * @param stamp 读取数据之前取得的 {@link #invalidationStamp()}
+     * @return 是否写入
+     */
+    public boolean putIfNotInvalidatedSince(K key, V value, long stamp) {
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            if (invalidations.get() != stamp) {
+                return false;
+            }
+            entries.put(key, entry);
+            return true;
+        }
+    }
+
+    /**
+     * 使单个键失效，并通知失效监听器
+     */
+    public void invalidate(K key) {
+        invalidateLocally(key);
+        Consumer<? super K> listener = invalidationListener;
+        if (listener != null) {
+            listener.accept(key);
+        }
+    }
+
+    /**
+     * 只在本地使单个键失效，不通知失效监听器
+     */
+    public void invalidateLocally(K key) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(key);
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    /**
+     * 清理所有已过期的条目
+     *
+     * @return 清理的条目数
+     */
+    public int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        synchronized (entries) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now)) {
+                    iterator.remove();
+                    purged++;
+                }
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * 当前条目数（可能包含尚未清理的过期条目）
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 设置失效监听器，{@link #invalidate} 时调用
+     */
+    public void setInvalidationListener(Consumer<? super K> listener) {
+        this.invalidationListener = listener;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 累计成功加载次数
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * 累计加载失败（loader 抛出异常）次数
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * 累计加载耗时（纳秒）
+     */
+    public long getTotalLoadNanos() {
+        return totalLoadNanos.sum();
+    }
+
+    /**
+     * 当前统计数据快照
+     */
+    public Stats snapshot() {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long loads = loadCount.sum();
+        return new Stats(name, size(), maxSize, hits, misses,
+                hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+                evictionCount.sum(), loads, loadFailureCount.sum(),
+                loads == 0 ? 0 : (double) totalLoadNanos.sum() / loads / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存统计快照
+     *
+     * @param name 缓存名称
+     * @param size 当前条目数
+     * @param maxSize 条目数上限
+     * @param hitCount 累计命中次数
+     * @param missCount 累计未命中次数
+     * @param hitRate 命中率
+     * @param evictionCount 累计因容量淘汰的条目数
+     * @param loadCount 累计加载次数
+     * @param loadFailureCount 累计加载失败次数
+     * @param averageLoadMillis 平均加载耗时（毫秒）
+     */
+    public record Stats(String name, int size, int maxSize, long hitCount, long missCount, double hitRate,
+                        long evictionCount, long loadCount, long loadFailureCount, double averageLoadMillis) {
+    }
+
+    private record Entry<V>(V value, long expireAt) {
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.guducat.backend.config;
+
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.entity.UserProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 本地缓存配置
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * 角色缓存，格式：<用户ID, 角色标识>
+     * <p>
+     * 供 {@link StpInterfaceImpl#getRoleList} 使用，避免每次角色校验都查询数据库。
+     * 使用 Redis 共享会话时，角色修改的失效会广播到所有节点，见 {@link SessionStoreConfig#clusterCacheInvalidator}。
+     * </p>
+     */
+    @Bean
+    public LocalCache<Long, String> roleCache(@Value("${app.cache.role.max-size:10000}") int maxSize,
+                                              @Value("${app.cache.role.ttl-seconds:300}") long ttlSeconds) {
+        return new LocalCache<>("role", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 用户资料缓存，格式：<用户ID, 用户资料>
+     * <p>
+     * 供 {@link com.guducat.backend.service.UserService#getUserProfile} 使用，资料被修改、密码重置、用户删除时失效。
+     * </p>
+     */
+    @Bean
+    public LocalCache<Long, UserProfile> profileCache(@Value("${app.cache.profile.max-size:10000}") int maxSize,
+                                                      @Value("${app.cache.profile.ttl-seconds:300}") long ttlSeconds) {
+        return new LocalCache<>("profile", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 不存在账号的短期负缓存，格式：<账号, TRUE>
+     * <p>
+     * 针对不存在账号的登录尝试（如撞库流量）在有效期内不再查询数据库。只缓存已是规范写法（规范化后的邮箱或折叠后的用户名）的账号，
+     * 其他写法总是查询数据库。注册新用户时会清除对应条目，
+     * 使用 Redis 共享会话时清除会广播到所有节点。
+     * </p>
+     */
+    @Bean
+    public LocalCache<String, Boolean> unknownAccountCache(@Value("${app.cache.unknown-account.max-size:100000}") int maxSize,
+                                                           @Value("${app.cache.unknown-account.ttl-seconds:60}") long ttlSeconds) {
+        return new LocalCache<>("unknown-account", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 近期写入记录，格式：<u:用户ID 或 s:登录ID, TRUE>
+     * <p>
+     * 供 {@link com.guducat.backend.datasource.ReadYourWrites} 使用，有效期即写入后读取改走主库的窗口。
+     * </p>
+     */
+    @Bean
+    public LocalCache<String, Boolean> recentWriteCache(@Value("${app.cache.recent-write.max-size:100000}") int maxSize,
+                                                        @Value("${app.datasource.read-your-writes-seconds:5}") long windowSeconds) {
+        return new LocalCache<>("recent-write", maxSize, Duration.ofSeconds(windowSeconds));
+    }
+}
@@ -0,0 +1,42 @@
+package com.guducat.backend.config;
+
+import com.baomidou.dynamic.datasource.processor.DsJakartaHeaderProcessor;
+import com.baomidou.dynamic.datasource.processor.DsJakartaSessionProcessor;
+import com.baomidou.dynamic.datasource.processor.DsProcessor;
+import com.baomidou.dynamic.datasource.processor.DsSpelExpressionProcessor;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.datasource.ReplicaDsProcessor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.expression.BeanFactoryResolver;
+
+/**
+ * 动态数据源配置。
+ * <p>
+ * 以 {@code replica_} 开头的数据源组成只读副本组，组内按动态数据源的负载均衡策略选择。
+ * 读方法通过 {@code @DS(ReadYourWrites.REPLICA)} 路由，见 {@link ReadYourWrites}。
+ * </p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * 数据源键解析链：在动态数据源默认的 header、session、SpEL 解析器之前加入副本路由
+     */
+    @Bean
+    public DsProcessor dsProcessor(BeanFactory beanFactory, ReadYourWrites readYourWrites,
+                                   @Value("${spring.datasource.dynamic.primary:master}") String primary,
+                                   @Value("${app.datasource.replica-group:replica}") String replicaGroup) {
+        DsProcessor replicaProcessor = new ReplicaDsProcessor(readYourWrites, primary, replicaGroup);
+        DsProcessor headerProcessor = new DsJakartaHeaderProcessor();
+        DsProcessor sessionProcessor = new DsJakartaSessionProcessor();
+        DsSpelExpressionProcessor spelExpressionProcessor = new DsSpelExpressionProcessor();
+        spelExpressionProcessor.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        replicaProcessor.setNextProcessor(headerProcessor);
+        headerProcessor.setNextProcessor(sessionProcessor);
+        sessionProcessor.setNextProcessor(spelExpressionProcessor);
+        return replicaProcessor;
+    }
+}
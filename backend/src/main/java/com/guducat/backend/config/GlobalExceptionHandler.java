@@ -0,0 +1,34 @@
+package com.guducat.backend.config;
+
+import cn.dev33.satoken.util.SaResult;
+import com.guducat.backend.security.PasswordHashingBusyException;
+import com.guducat.backend.service.InvalidBulkRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 全局异常处理
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * 批量操作请求不合法，返回 400；其他异常的消息可能包含内部信息，不在这里返回给客户端
+     */
+    @ExceptionHandler(InvalidBulkRequestException.class)
+    public ResponseEntity<SaResult> handleInvalidBulkRequest(InvalidBulkRequestException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(SaResult.error(e.getMessage()).setCode(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    /**
+     * 密码哈希线程池繁忙，快速返回 503，客户端稍后重试
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<SaResult> handlePasswordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(SaResult.error("系统繁忙，请稍后再试").setCode(HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.guducat.backend.config;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.maintenance.MaintenanceScheduler;
+import com.guducat.backend.security.ResetTokenStore;
+import com.guducat.backend.service.AccountAvailabilityService;
+import com.guducat.backend.session.CoalescingSaTokenDao;
+import com.guducat.backend.session.FileSaTokenDao;
+import com.guducat.backend.session.SessionIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 后台维护任务配置。
+ * <p>
+ * 集中注册所有后台定时任务，统一由 {@link MaintenanceScheduler} 调度。
+ * </p>
+ */
+@Configuration
+public class MaintenanceConfig {
+
+    private final MaintenanceScheduler scheduler;
+
+    private final ResetTokenStore resetTokenStore;
+
+    private final List<LocalCache<?, ?>> caches;
+
+    private final AccountAvailabilityService accountAvailabilityService;
+
+    private final ObjectProvider<FileSaTokenDao> fileSaTokenDao;
+
+    private final ObjectProvider<CoalescingSaTokenDao> coalescingSaTokenDao;
+
+    private final SessionIndex sessionIndex;
+
+    public MaintenanceConfig(MaintenanceScheduler scheduler, ResetTokenStore resetTokenStore, List<LocalCache<?, ?>> caches,
+                             AccountAvailabilityService accountAvailabilityService, ObjectProvider<FileSaTokenDao> fileSaTokenDao,
+                             ObjectProvider<CoalescingSaTokenDao> coalescingSaTokenDao, SessionIndex sessionIndex) {
+        this.scheduler = scheduler;
+        this.resetTokenStore = resetTokenStore;
+        this.caches = caches;
+        this.accountAvailabilityService = accountAvailabilityService;
+        this.fileSaTokenDao = fileSaTokenDao;
+        this.coalescingSaTokenDao = coalescingSaTokenDao;
+        this.sessionIndex = sessionIndex;
+    }
+
+    @PostConstruct
+    public void registerJobs() {
+        // 清理过期的重置密码令牌
+        scheduler.register("reset-token-expiry", Duration.ofMinutes(1), resetTokenStore::purgeExpired);
+
+        // 清理本地缓存中的过期条目
+        scheduler.register("local-cache-cleanup", Duration.ofMinutes(5),
+                () -> caches.forEach(LocalCache::purgeExpired));
+
+        // 清理 Sa-Token 存储中的过期数据（替代默认内存存储自带的刷新线程，见 sa-token.data-refresh-period）
+        scheduler.register("sa-token-session-cleanup", Duration.ofSeconds(30), () -> {
+            SaTokenDao saTokenDao = SaManager.getSaTokenDao();
+            if (saTokenDao instanceof CoalescingSaTokenDao coalescing) {
+                saTokenDao = coalescing.getDelegate();
+            }
+            if (saTokenDao instanceof SaTokenDaoDefaultImpl dao) {
+                dao.timedCache.refreshDataMap();
+            } else if (saTokenDao instanceof FileSaTokenDao dao) {
+                dao.purgeExpired();
+            }
+        });
+
+        // 批量写入合并后的 token 续期
+        coalescingSaTokenDao.ifAvailable(dao ->
+                scheduler.register("session-renewal-flush", dao.getFlushInterval(), dao::flush));
+
+        // 会话持久化到文件时：定期刷盘，日志增长到阈值后压缩为快照
+        fileSaTokenDao.ifAvailable(dao -> {
+            scheduler.register("session-store-sync", Duration.ofSeconds(1), dao::sync);
+            scheduler.register("session-store-compaction", Duration.ofMinutes(1), dao::compactIfNeeded);
+        });
+
+        // 从在线会话索引中移除 token 已全部过期的用户
+        scheduler.register("session-index-cleanup", Duration.ofMinutes(5), sessionIndex::purgeStale);
+
+        // 有账号删除或邮箱变更时重建账号过滤器，启动时构建失败也由此重试
+        scheduler.register("account-filter-rebuild", Duration.ofMinutes(30), accountAvailabilityService::rebuildIfStale);
+    }
+}
@@ -0,0 +1,281 @@
+package com.guducat.backend.config;
+
+import com.guducat.backend.audit.AuditLog;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.baomidou.dynamic.datasource.DynamicRoutingDataSource;
+import com.baomidou.dynamic.datasource.ds.ItemDataSource;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.maintenance.MaintenanceJob;
+import com.guducat.backend.maintenance.MaintenanceScheduler;
+import com.guducat.backend.metrics.MapperMetricsInterceptor;
+import com.guducat.backend.security.AuthRateLimitInterceptor;
+import com.guducat.backend.security.ResetTokenStore;
+import com.guducat.backend.security.SlidingWindowRateLimiter;
+import com.guducat.backend.session.CoalescingSaTokenDao;
+import com.guducat.backend.session.FileSaTokenDao;
+import com.guducat.backend.session.SessionIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 运行指标配置。
+ * <p>
+ * 除认证操作计时（{@link com.guducat.backend.metrics.AuthMetrics}）外，这里注册 Mapper 语句计时插件，
+ * 以及会话、重置令牌、审计日志、连接池、本地缓存和后台任务的指标，全部通过 /actuator/prometheus 暴露。
+ * </p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Mapper 语句耗时插件，MyBatis-Plus 自动配置会注册容器中的所有 Interceptor
+     */
+    @Bean
+    public MapperMetricsInterceptor mapperMetricsInterceptor(MeterRegistry registry) {
+        return new MapperMetricsInterceptor(registry);
+    }
+
+    /**
+     * Sa-Token 当前的会话数与 token 数。
+     * <p>
+     * 读取在线会话索引，采集时不扫描存储：会话数（有会话的用户数）实时维护，
+     * token 数由 session-index-cleanup 任务每 5 分钟统计一次。
+     * </p>
+     */
+    @Bean
+    public MeterBinder saTokenMetrics(SessionIndex sessionIndex) {
+        return registry -> {
+            Gauge.builder("satoken.sessions", sessionIndex, SessionIndex::getUserCount)
+                    .description("当前登录会话数")
+                    .register(registry);
+            Gauge.builder("satoken.tokens", sessionIndex, SessionIndex::getTokenCount)
+                    .description("有效 token 数，每 5 分钟统计一次")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 重置密码令牌存储
+     */
+    @Bean
+    public MeterBinder resetTokenMetrics(ResetTokenStore store) {
+        return registry -> {
+            Gauge.builder("reset.tokens.active", store, ResetTokenStore::size)
+                    .description("当前未过期的重置令牌数")
+                    .register(registry);
+            FunctionCounter.builder("reset.tokens.expired", store, ResetTokenStore::getExpiredCount)
+                    .description("因过期被清理的重置令牌数")
+                    .register(registry);
+            FunctionCounter.builder("reset.tokens.evicted", store, ResetTokenStore::getEvictedCount)
+                    .description("因超出容量被淘汰的重置令牌数")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 会话持久化到文件时的条目数与文件大小
+     */
+    @Bean
+    public MeterBinder sessionStoreMetrics(ObjectProvider<FileSaTokenDao> fileSaTokenDao) {
+        return registry -> fileSaTokenDao.ifAvailable(dao -> {
+            Gauge.builder("session.store.entries", dao, FileSaTokenDao::size)
+                    .description("会话存储内存中的条目数")
+                    .register(registry);
+            Gauge.builder("session.store.log.size", dao, FileSaTokenDao::getLogBytes)
+                    .description("当前日志文件大小")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("session.store.snapshot.size", dao, FileSaTokenDao::getSnapshotBytes)
+                    .description("最新快照文件大小")
+                    .baseUnit("bytes")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * token 续期合并：记录数与实际写入数之差即省去的存储写入
+     */
+    @Bean
+    public MeterBinder sessionRenewalMetrics(ObjectProvider<CoalescingSaTokenDao> coalescingSaTokenDao) {
+        return registry -> coalescingSaTokenDao.ifAvailable(dao -> {
+            FunctionCounter.builder("session.renewals.recorded", dao, CoalescingSaTokenDao::getRecordedCount)
+                    .description("请求触发的 token 续期数")
+                    .register(registry);
+            FunctionCounter.builder("session.renewals.written", dao, CoalescingSaTokenDao::getWrittenCount)
+                    .description("合并后写入存储的 token 续期数")
+                    .register(registry);
+            Gauge.builder("session.renewals.pending", dao, CoalescingSaTokenDao::getPendingCount)
+                    .description("尚未写入存储的 token 续期数")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * 认证接口限流拒绝的请求数，按接口与限流维度（ip / account）区分
+     */
+    @Bean
+    public MeterBinder rateLimitMetrics(ObjectProvider<AuthRateLimitInterceptor> authRateLimitInterceptor) {
+        return registry -> authRateLimitInterceptor.ifAvailable(interceptor -> interceptor.getRules().forEach((path, rule) -> {
+            registerRejected(registry, path, "ip", rule.perIp());
+            registerRejected(registry, path, "account", rule.perAccount());
+        }));
+    }
+
+    private static void registerRejected(MeterRegistry registry, String path, String scope, SlidingWindowRateLimiter limiter) {
+        if (limiter != null) {
+            FunctionCounter.builder("auth.rate.limited", limiter, SlidingWindowRateLimiter::getRejectedCount)
+                    .description("限流拒绝的请求数")
+                    .tag("path", path)
+                    .tag("scope", scope)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 认证审计日志的记录、写入与丢弃数
+     */
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            FunctionCounter.builder("audit.events.recorded", auditLog, AuditLog::getRecordedCount)
+                    .description("记录的审计事件数")
+                    .register(registry);
+            FunctionCounter.builder("audit.events.written", auditLog, AuditLog::getWrittenCount)
+                    .description("已写入数据库的审计事件数")
+                    .register(registry);
+            FunctionCounter.builder("audit.events.dropped", auditLog, AuditLog::getDroppedCount)
+                    .description("丢弃的审计事件数")
+                    .tag("reason", "overflow")
+                    .register(registry);
+            FunctionCounter.builder("audit.events.dropped", auditLog, AuditLog::getFailedCount)
+                    .description("丢弃的审计事件数")
+                    .tag("reason", "write_failure")
+                    .register(registry);
+            Gauge.builder("audit.events.pending", auditLog, AuditLog::getPendingCount)
+                    .description("缓冲区中等待写入的审计事件数")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Druid 连接池的活跃、空闲、等待连接数与使用率，动态数据源下的每个 Druid 连接池分别统计
+     */
+    @Bean
+    public MeterBinder druidPoolMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream().forEach(dataSource -> {
+            if (dataSource instanceof DynamicRoutingDataSource dynamic) {
+                for (Map.Entry<String, DataSource> entry : dynamic.getDataSources().entrySet()) {
+                    DataSource real = entry.getValue() instanceof ItemDataSource item ? item.getRealDataSource() : entry.getValue();
+                    if (real instanceof DruidDataSource druid) {
+                        bindDruid(registry, entry.getKey(), druid);
+                    }
+                }
+            } else if (dataSource instanceof DruidDataSource druid) {
+                bindDruid(registry, druid.getName(), druid);
+            }
+        });
+    }
+
+    /**
+     * 本地缓存的命中、未命中、淘汰与加载统计，按 Micrometer 缓存指标的命名约定
+     */
+    @Bean
+    public MeterBinder localCacheMetrics(List<LocalCache<?, ?>> caches) {
+        return registry -> {
+            for (LocalCache<?, ?> cache : caches) {
+                String name = cache.getName();
+                Gauge.builder("cache.size", cache, LocalCache::size)
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("cache.gets", cache, LocalCache::getHitCount)
+                        .tag("cache", name).tag("result", "hit")
+                        .register(registry);
+                FunctionCounter.builder("cache.gets", cache, LocalCache::getMissCount)
+                        .tag("cache", name).tag("result", "miss")
+                        .register(registry);
+                FunctionCounter.builder("cache.evictions", cache, LocalCache::getEvictionCount)
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("cache.loads", cache, LocalCache::getLoadCount)
+                        .tag("cache", name).tag("result", "success")
+                        .register(registry);
+                FunctionCounter.builder("cache.loads", cache, LocalCache::getLoadFailureCount)
+                        .tag("cache", name).tag("result", "failure")
+                        .register(registry);
+                FunctionCounter.builder("cache.load.duration", cache, c -> c.getTotalLoadNanos() / 1e9)
+                        .tag("cache", name)
+                        .baseUnit("seconds")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * 后台维护任务的执行、失败、超时次数与最近一次耗时
+     */
+    @Bean
+    public MeterBinder maintenanceJobMetrics(MaintenanceScheduler scheduler) {
+        return registry -> {
+            for (MaintenanceJob.Stats job : scheduler.getJobStats()) {
+                String name = job.name();
+                FunctionCounter.builder("maintenance.job.runs", scheduler, s -> jobStat(s, name, MaintenanceJob.Stats::runCount))
+                        .tag("job", name)
+                        .register(registry);
+                FunctionCounter.builder("maintenance.job.failures", scheduler, s -> jobStat(s, name, MaintenanceJob.Stats::failureCount))
+                        .tag("job", name)
+                        .register(registry);
+                FunctionCounter.builder("maintenance.job.overruns", scheduler, s -> jobStat(s, name, MaintenanceJob.Stats::overrunCount))
+                        .tag("job", name)
+                        .register(registry);
+                TimeGauge.builder("maintenance.job.last.duration", scheduler, TimeUnit.MILLISECONDS,
+                                s -> jobStat(s, name, MaintenanceJob.Stats::lastDurationMillis))
+                        .tag("job", name)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static void bindDruid(MeterRegistry registry, String pool, DruidDataSource druid) {
+        Gauge.builder("druid.pool.active", druid, DruidDataSource::getActiveCount)
+                .description("正在使用的连接数")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("druid.pool.idle", druid, DruidDataSource::getPoolingCount)
+                .description("空闲连接数")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("druid.pool.max", druid, DruidDataSource::getMaxActive)
+                .description("最大连接数")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("druid.pool.pending", druid, DruidDataSource::getWaitThreadCount)
+                .description("等待获取连接的线程数")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("druid.pool.usage", druid, d -> d.getMaxActive() == 0 ? 0 : (double) d.getActiveCount() / d.getMaxActive())
+                .description("连接池使用率（活跃连接数 / 最大连接数）")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    private static double jobStat(MaintenanceScheduler scheduler, String name, ToDoubleFunction<MaintenanceJob.Stats> stat) {
+        for (MaintenanceJob.Stats job : scheduler.getJobStats()) {
+            if (job.name().equals(name)) {
+                return stat.applyAsDouble(job);
+            }
+        }
+        return 0;
+    }
+}
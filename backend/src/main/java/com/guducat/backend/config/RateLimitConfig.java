@@ -0,0 +1,49 @@
+package com.guducat.backend.config;
+
+import com.guducat.backend.security.AuthRateLimitInterceptor;
+import com.guducat.backend.security.SlidingWindowRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 认证接口限流配置。
+ * <p>
+ * 登录、找回密码按 IP 和账号限流，注册按 IP 限流；限制为 0 表示该维度不限流。
+ * 由 {@link SaTokenConfig} 注册到 Sa-Token 拦截器之前。
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public AuthRateLimitInterceptor authRateLimitInterceptor(
+            @Value("${app.rate-limit.slots:16384}") int slots,
+            @Value("${app.rate-limit.login.window-seconds:300}") long loginWindow,
+            @Value("${app.rate-limit.login.per-ip:100}") int loginPerIp,
+            @Value("${app.rate-limit.login.per-account:10}") int loginPerAccount,
+            @Value("${app.rate-limit.register.window-seconds:3600}") long registerWindow,
+            @Value("${app.rate-limit.register.per-ip:20}") int registerPerIp,
+            @Value("${app.rate-limit.verify-identity.window-seconds:900}") long verifyWindow,
+            @Value("${app.rate-limit.verify-identity.per-ip:30}") int verifyPerIp,
+            @Value("${app.rate-limit.verify-identity.per-account:5}") int verifyPerAccount) {
+        Map<String, AuthRateLimitInterceptor.Rule> rules = new LinkedHashMap<>();
+        rules.put("/user/doLogin", new AuthRateLimitInterceptor.Rule(
+                limiter(loginPerIp, loginWindow, slots), limiter(loginPerAccount, loginWindow, slots), "username"));
+        rules.put("/user/doRegister", new AuthRateLimitInterceptor.Rule(
+                limiter(registerPerIp, registerWindow, slots), null, null));
+        rules.put("/user/verifyIdentity", new AuthRateLimitInterceptor.Rule(
+                limiter(verifyPerIp, verifyWindow, slots), limiter(verifyPerAccount, verifyWindow, slots), "username"));
+        return new AuthRateLimitInterceptor(rules);
+    }
+
+    private static SlidingWindowRateLimiter limiter(int limit, long windowSeconds, int slots) {
+        return limit > 0 ? new SlidingWindowRateLimiter(limit, Duration.ofSeconds(windowSeconds), slots) : null;
+    }
+}
@@ -1,8 +1,12 @@
 package com.guducat.backend.config;
 
+import cn.dev33.satoken.context.SaHolder;
 import cn.dev33.satoken.interceptor.SaInterceptor;
-import cn.dev33.satoken.router.SaRouter;
-import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.metrics.RequestTiming;
+import com.guducat.backend.security.AuthRateLimitInterceptor;
+import com.guducat.backend.security.RouteRuleTable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,24 +17,46 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class SaTokenConfig implements WebMvcConfigurer {
 
+    private final ObjectProvider<AuthRateLimitInterceptor> authRateLimitInterceptor;
+
+    public SaTokenConfig(ObjectProvider<AuthRateLimitInterceptor> authRateLimitInterceptor) {
+        this.authRateLimitInterceptor = authRateLimitInterceptor;
+    }
+
+    /**
+     * 路由鉴权表，启动时编译，每个请求只做一次按路径查找
+     */
+    @Bean
+    public RouteRuleTable routeRuleTable() {
+        return RouteRuleTable.builder()
+                // 需要登录认证的路由
+                .login("/user/getInfo", "/user/updateInfo", "/user/isAdmin", "/user/deleteAccount")
+                // 管理员接口
+                .role("admin", "/admin/**")
+                .build();
+    }
+
     /**
      * 注册 Sa-Token 拦截器
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // 注册 Sa-Token 拦截器
-        registry.addInterceptor(new SaInterceptor(handle -> {
-            // 需要登录认证的路由
-            SaRouter.match("/user/getInfo", r -> StpUtil.checkLogin());
-            SaRouter.match("/user/updateInfo", r -> StpUtil.checkLogin());
-            SaRouter.match("/user/isAdmin", r -> StpUtil.checkLogin());
-            SaRouter.match("/user/deleteAccount", r -> StpUtil.checkLogin());
+        // 认证接口限流，先于鉴权执行，超限请求不进入后续处理
+        authRateLimitInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns(interceptor.getPaths()));
 
-            // 管理员接口
-            SaRouter.match("/admin/**", r -> {
-                StpUtil.checkLogin();
-                StpUtil.checkRole("admin");
-            });
+        RouteRuleTable table = routeRuleTable();
+        // 注册 Sa-Token 拦截器，开启 Server-Timing 时鉴权耗时计入 auth 阶段
+        registry.addInterceptor(new SaInterceptor(handle -> {
+            RequestTiming timing = RequestTiming.current();
+            long start = System.nanoTime();
+            try {
+                table.resolve(SaHolder.getRequest().getRequestPath()).check();
+            } finally {
+                if (timing != null) {
+                    timing.add(RequestTiming.Phase.AUTH, System.nanoTime() - start);
+                }
+            }
         })).addPathPatterns("/**");
     }
 }
@@ -0,0 +1,44 @@
+package com.guducat.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.guducat.backend.metrics.ServerTimingFilter;
+import com.guducat.backend.metrics.TimedJacksonHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 请求分阶段耗时（Server-Timing）配置。
+ * <p>
+ * 默认关闭：关闭时不注册过滤器与计时转换器，各处埋点只多一次 ThreadLocal 读取。
+ * 响应头会向客户端暴露服务端各阶段耗时，生产环境建议只在排查问题时临时开启。
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    /**
+     * 计时过滤器，紧随跨域过滤器之后、先于 Sa-Token 拦截器执行
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${app.server-timing.slow-request-millis:500}") long slowRequestMillis,
+            @Value("${app.server-timing.slow-request-log-rate:1.0}") double logSampleRate) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(slowRequestMillis, logSampleRate));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * 替换 Spring Boot 默认的 JSON 转换器，统计序列化耗时
+     */
+    @Bean
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+}
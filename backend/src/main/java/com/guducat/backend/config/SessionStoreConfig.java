@@ -0,0 +1,108 @@
+package com.guducat.backend.config;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import com.guducat.backend.cache.ClusterCacheInvalidator;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.service.AccountAvailabilityService;
+import com.guducat.backend.session.CoalescingSaTokenDao;
+import com.guducat.backend.session.FileSaTokenDao;
+import com.guducat.backend.session.RedisSaTokenDao;
+import io.lettuce.core.RedisURI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Sa-Token 会话存储配置。
+ * <p>
+ * 默认使用 Sa-Token 自带的内存存储，重启后所有会话失效。{@code app.session-store.type} 为 file 时改用持久化到本地文件的
+ * {@link FileSaTokenDao}（单节点），为 redis 时改用多节点共享的 {@link RedisSaTokenDao}。
+ * Sa-Token 的自动配置会注入容器中的 SaTokenDao 并调用其 init 完成恢复或连接。
+ * </p>
+ * <p>
+ * {@code app.session-store.coalesce-renewals} 为 true 时，再用 {@link CoalescingSaTokenDao} 装饰上述存储，
+ * 合并开启 active-timeout 后每个请求对 token 最后活跃时间的写入。
+ * </p>
+ * <p>
+ * 使用 Redis 共享会话（多节点）时，角色、用户资料与不存在账号负缓存的失效，以及账号过滤器的新增账号，通过同一个频道广播到所有节点。
+ * </p>
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(name = "app.session-store.type", havingValue = "file")
+    public FileSaTokenDao fileSaTokenDao(@Value("${app.session-store.path:data/sessions}") String path,
+                                         @Value("${app.session-store.compact-min-mb:64}") long compactMinMb) {
+        return new FileSaTokenDao(Path.of(path), compactMinMb * 1024 * 1024);
+    }
+
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(name = "app.session-store.type", havingValue = "redis")
+    public RedisSaTokenDao redisSaTokenDao(@Value("${app.session-store.redis.uri:redis://localhost:6379/0}") String uri,
+                                           @Value("${app.session-store.redis.channel:satoken:near-cache:invalidate}") String channel,
+                                           LocalCache<String, RedisSaTokenDao.CachedValue> tokenNearCache) {
+        return new RedisSaTokenDao(RedisURI.create(uri), channel, tokenNearCache);
+    }
+
+    /**
+     * 多节点间广播角色、用户资料缓存的失效，复用近端缓存失效通知的频道。
+     * 收到角色、资料失效的节点在读己之写的窗口内从主库重新加载该用户，不会把副本上的旧角色缓存下来。
+     * 不存在账号的负缓存同样广播，在一个节点注册的用户可以立即在其他节点登录；
+     * 新增的用户名、邮箱也广播到各节点的账号过滤器，可用性检查不会把其他节点已注册的账号判为可用。
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.session-store.type", havingValue = "redis")
+    public ClusterCacheInvalidator clusterCacheInvalidator(RedisSaTokenDao redisSaTokenDao,
+                                                           LocalCache<Long, String> roleCache,
+                                                           LocalCache<Long, UserProfile> profileCache,
+                                                           LocalCache<String, Boolean> unknownAccountCache,
+                                                           ReadYourWrites readYourWrites,
+                                                           AccountAvailabilityService accountAvailabilityService) {
+        ClusterCacheInvalidator invalidator = new ClusterCacheInvalidator(redisSaTokenDao::publish);
+        invalidator.register(roleCache, Long::valueOf, readYourWrites::recordRemoteWrite);
+        invalidator.register(profileCache, Long::valueOf, readYourWrites::recordRemoteWrite);
+        invalidator.register(unknownAccountCache, key -> key);
+        redisSaTokenDao.addMessageListener(invalidator::onMessage);
+        accountAvailabilityService.enableBroadcast(redisSaTokenDao::publish);
+        redisSaTokenDao.addMessageListener(accountAvailabilityService::onMessage);
+        return invalidator;
+    }
+
+    /**
+     * 合并 token 续期写入的装饰器，作为 Sa-Token 实际使用的存储；未配置 file 或 redis 时装饰默认内存存储
+     */
+    @Bean(destroyMethod = "destroy")
+    @Primary
+    @ConditionalOnProperty(name = "app.session-store.coalesce-renewals", havingValue = "true")
+    public CoalescingSaTokenDao coalescingSaTokenDao(Optional<FileSaTokenDao> fileSaTokenDao,
+                                                     Optional<RedisSaTokenDao> redisSaTokenDao,
+                                                     @Value("${app.session-store.renewal-flush-seconds:5}") long flushSeconds) {
+        SaTokenDao delegate = fileSaTokenDao.<SaTokenDao>map(dao -> dao)
+                .or(() -> redisSaTokenDao.map(dao -> dao))
+                .orElseGet(SaTokenDaoDefaultImpl::new);
+        return new CoalescingSaTokenDao(delegate, Duration.ofSeconds(flushSeconds));
+    }
+
+    /**
+     * Redis 会话存储的近端缓存，格式：<token 键或最后活跃时间键, 值与剩余有效期>
+     * <p>
+     * 其他节点的修改通过订阅通知失效，TTL 是错过通知时的最长不一致时间。
+     * </p>
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.session-store.type", havingValue = "redis")
+    public LocalCache<String, RedisSaTokenDao.CachedValue> tokenNearCache(@Value("${app.cache.token.max-size:100000}") int maxSize,
+                                                                          @Value("${app.cache.token.ttl-seconds:30}") long ttlSeconds) {
+        return new LocalCache<>("token", maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+}
@@ -1,7 +1,6 @@
 package com.guducat.backend.config;
 
 import cn.dev33.satoken.stp.StpInterface;
-import com.guducat.backend.entity.User;
 import com.guducat.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -34,11 +33,11 @@ public class StpInterfaceImpl implements StpInterface {
     public List<String> getRoleList(Object loginId, String loginType) {
         List<String> roleList = new ArrayList<>();
         
-        // 获取用户信息
-        User user = userService.getById(Long.parseLong(loginId.toString()));
-        if (user != null) {
+        // 获取用户角色（走角色缓存）
+        String role = userService.getUserRole(Long.parseLong(loginId.toString()));
+        if (role != null) {
             // 根据用户角色添加对应的角色标识
-            if ("admin".equals(user.getRole())) {
+            if ("admin".equals(role)) {
                 roleList.add("admin");
             } else {
                 roleList.add("user");
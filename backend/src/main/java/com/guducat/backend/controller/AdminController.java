@@ -1,11 +1,27 @@
 package com.guducat.backend.controller;
 
 import cn.dev33.satoken.annotation.SaCheckRole;
-import com.guducat.backend.entity.User;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.util.SaResult;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.entity.BulkOperationResult;
+import com.guducat.backend.entity.BulkUserRequest;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.SessionSummary;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
+import com.guducat.backend.maintenance.MaintenanceJob;
+import com.guducat.backend.maintenance.MaintenanceScheduler;
+import com.guducat.backend.service.UserExporter;
 import com.guducat.backend.service.UserService;
+import com.guducat.backend.session.SessionIndex;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -15,13 +31,71 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MaintenanceScheduler maintenanceScheduler;
+
+    @Autowired
+    private UserExporter userExporter;
+
+    @Autowired
+    private SessionIndex sessionIndex;
+
+    @Autowired
+    private List<LocalCache<?, ?>> caches;
+
     /**
-     * 获取所有用户
+     * 分页获取用户列表，按 id 升序
+     *
+     * @param after 上一页返回的 nextAfter，首页不传
+     * @param limit 每页条数，默认 20，最大 100
+     * @param role 角色过滤（选填）
+     * @param usernamePrefix 用户名前缀过滤（选填）
      */
     @SaCheckRole("admin")
     @GetMapping("/users")
-    public List<User> getAllUsers() {
-        return userService.list();
+    public CursorPage<UserSummary> getUsers(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String role,
+                                            @RequestParam(required = false) String usernamePrefix) {
+        return userService.listUsers(after, limit, role, usernamePrefix);
+    }
+
+    /**
+     * 导出全部用户（不包含密码），边查询边写入响应
+     *
+     * @param format 导出格式：ndjson（默认）或 csv
+     */
+    @SaCheckRole("admin")
+    @GetMapping("/users/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        UserExporter.Format exportFormat = UserExporter.Format.of(format);
+        if (exportFormat == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "不支持的导出格式：" + format);
+            return;
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + exportFormat.getExtension());
+        userExporter.export(exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * 批量删除用户，同时注销这些用户的全部会话；当前管理员本人不会被删除
+     */
+    @SaCheckRole("admin")
+    @PostMapping("/users/bulk-delete")
+    public BulkOperationResult bulkDeleteUsers(@RequestBody BulkUserRequest request) {
+        return userService.bulkDelete(request, StpUtil.getLoginIdAsLong());
+    }
+
+    /**
+     * 批量修改用户角色；当前管理员本人的角色不会被修改
+     */
+    @SaCheckRole("admin")
+    @PostMapping("/users/bulk-role")
+    public BulkOperationResult bulkUpdateRole(@RequestBody BulkUserRequest request) {
+        return userService.bulkUpdateRole(request, StpUtil.getLoginIdAsLong());
     }
 
     /**
@@ -29,8 +103,8 @@ public class AdminController {
      */
     @SaCheckRole("admin")
     @GetMapping("/users/{id}")
-    public User getUser(@PathVariable Long id) {
-        return userService.getById(id);
+    public UserProfile getUser(@PathVariable Long id) {
+        return userService.getUserProfile(id);
     }
 
     /**
@@ -39,6 +113,67 @@ public class AdminController {
     @SaCheckRole("admin")
     @DeleteMapping("/users/{id}")
     public void deleteUser(@PathVariable Long id) {
-        userService.removeById(id);
+        userService.removeUser(id);
+    }
+
+    /**
+     * 分页获取全部在线会话，按用户 id 升序，同一用户的会话总在同一页
+     *
+     * @param after 上一页返回的 nextAfter，首页不传
+     * @param limit 每页的用户数，默认 20，最大 100
+     */
+    @SaCheckRole("admin")
+    @GetMapping("/sessions")
+    public CursorPage<SessionSummary> getSessions(@RequestParam(required = false) Long after,
+                                                  @RequestParam(required = false) Integer limit) {
+        return sessionIndex.listAllSessions(after, limit);
+    }
+
+    /**
+     * 获取用户当前的有效会话
+     */
+    @SaCheckRole("admin")
+    @GetMapping("/users/{id}/sessions")
+    public List<SessionSummary> getUserSessions(@PathVariable Long id) {
+        return sessionIndex.listSessions(id);
+    }
+
+    /**
+     * 注销用户的指定会话
+     */
+    @SaCheckRole("admin")
+    @DeleteMapping("/users/{id}/sessions/{sessionId}")
+    public SaResult revokeSession(@PathVariable Long id, @PathVariable String sessionId) {
+        if (!sessionIndex.revoke(id, sessionId)) {
+            return SaResult.error("会话不存在").setCode(404);
+        }
+        return SaResult.ok("会话已注销");
+    }
+
+    /**
+     * 注销用户的全部会话
+     */
+    @SaCheckRole("admin")
+    @DeleteMapping("/users/{id}/sessions")
+    public SaResult revokeAllSessions(@PathVariable Long id) {
+        return SaResult.ok("已注销 " + sessionIndex.revokeAll(id) + " 个会话");
+    }
+
+    /**
+     * 查看本地缓存的命中率、淘汰与加载统计
+     */
+    @SaCheckRole("admin")
+    @GetMapping("/caches")
+    public List<LocalCache.Stats> getCacheStats() {
+        return caches.stream().map(LocalCache::snapshot).toList();
+    }
+
+    /**
+     * 查看后台维护任务的运行统计
+     */
+    @SaCheckRole("admin")
+    @GetMapping("/maintenance/jobs")
+    public List<MaintenanceJob.Stats> getMaintenanceJobs() {
+        return maintenanceScheduler.getJobStats();
     }
-}
\ No newline at end of file
+}
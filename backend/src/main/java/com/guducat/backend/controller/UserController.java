@@ -5,8 +5,13 @@ import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaResult;
 
 import java.util.HashMap;
-import com.guducat.backend.entity.User;
+import java.util.Map;
+import com.guducat.backend.entity.AccountKey;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.service.AccountAvailabilityService;
+import com.guducat.backend.service.ProfileUpdateResult;
 import com.guducat.backend.service.UserService;
+import com.guducat.backend.util.AccountUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -27,8 +32,11 @@ public class UserController {
 
     private final UserService userService;
 
-    public UserController(UserService userService) {
+    private final AccountAvailabilityService accountAvailabilityService;
+
+    public UserController(UserService userService, AccountAvailabilityService accountAvailabilityService) {
         this.userService = userService;
+        this.accountAvailabilityService = accountAvailabilityService;
     }
 
 
@@ -74,19 +82,45 @@ public class UserController {
             return SaResult.error("两次输入的密码不一致");
         }
 
-        boolean registerSuccess = userService.register(username, nickname, email, avatarUrl, password);
-        if (registerSuccess) {
-            boolean loginSuccess = userService.login(username, password);
-            if (loginSuccess) {
-                SaTokenInfo tokenInfo = StpUtil.getTokenInfo();
-                return SaResult.data(tokenInfo);
-            }
-            return SaResult.error("注册成功，但自动登录失败，请手动登录");
+        Long userId = userService.register(username, nickname, email, avatarUrl, password);
+        if (userId != null) {
+            // 直接以新用户ID建立会话，无需再次查询和校验密码
+            StpUtil.login(userId);
+            SaTokenInfo tokenInfo = StpUtil.getTokenInfo();
+            return SaResult.data(tokenInfo);
         }
         return SaResult.error("注册失败，用户名或邮箱可能已存在");
     }
 
 
+    /**
+     * 检查用户名、邮箱是否可用。
+     * <p>
+     * 供注册页输入时实时检查，大部分请求由内存中的账号过滤器直接判定，不查询数据库。
+     * </p>
+     *
+     * @param username 用户名（选填）
+     * @param email 邮箱（选填）
+     * @return 传入字段的可用性，如 {"username": true, "email": false}
+     */
+    @RequestMapping("checkAvailable")
+    public SaResult checkAvailable(String username, String email) {
+        boolean hasUsername = username != null && !username.isEmpty();
+        boolean hasEmail = email != null && !email.isEmpty();
+        if (!hasUsername && !hasEmail) {
+            return SaResult.error("用户名和邮箱不能同时为空");
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        if (hasUsername) {
+            result.put("username", accountAvailabilityService.isUsernameAvailable(username));
+        }
+        if (hasEmail) {
+            result.put("email", accountAvailabilityService.isEmailAvailable(email));
+        }
+        return SaResult.data(result);
+    }
+
     /**
      * 获取当前登录用户信息。
      * <p>
@@ -103,31 +137,29 @@ public class UserController {
             return SaResult.error("用户未登录");
         }
 
-        // 获取用户信息
-        User user = userService.getUserById(Long.parseLong(loginId.toString()));
-        if (user == null) {
+        // 获取用户资料（查询时即不包含密码）
+        UserProfile profile = userService.getUserProfile(Long.parseLong(loginId.toString()));
+        if (profile == null) {
             return SaResult.error("用户信息不存在");
         }
 
-        // 清除敏感信息
-        user.setPassword(null);
-
-        return SaResult.data(user);
+        return SaResult.data(profile);
     }
 
     /**
      * 更新当前登录用户信息。
      * <p>
-     * 支持更新昵称、邮箱、头像URL等信息。
+     * 支持更新昵称、邮箱、头像URL等信息。传入 version 时，若资料在读取后已被修改则拒绝更新。
      * </p>
      *
      * @param nickname 昵称
      * @param email 邮箱
      * @param avatarUrl 头像URL
+     * @param version 读取资料时的版本号（选填）
      * @return 更新结果
      */
     @RequestMapping("updateInfo")
-    public SaResult updateInfo(String nickname, String email, String avatarUrl) {
+    public SaResult updateInfo(String nickname, String email, String avatarUrl, Integer version) {
         // 获取当前登录用户ID，如果未登录则返回错误
         Object loginId = StpUtil.getLoginId(-1);
         if (loginId.equals(-1)) {
@@ -135,18 +167,20 @@ public class UserController {
         }
 
         // 更新用户信息
-        boolean updateSuccess = userService.updateUserInfo(
+        ProfileUpdateResult result = userService.updateUserInfo(
             Long.parseLong(loginId.toString()),
             nickname,
             email,
-            avatarUrl
+            avatarUrl,
+            version
         );
 
-        if (updateSuccess) {
-            return SaResult.ok("用户信息更新成功");
-        } else {
-            return SaResult.error("用户信息更新失败，邮箱可能已被使用");
-        }
+        return switch (result) {
+            case UPDATED -> SaResult.ok("用户信息更新成功");
+            case EMAIL_TAKEN -> SaResult.error("用户信息更新失败，邮箱已被使用");
+            case VERSION_CONFLICT -> SaResult.error("用户信息已被修改，请刷新后重试");
+            case NOT_FOUND -> SaResult.error("用户信息不存在");
+        };
     }
 
     /**
@@ -187,22 +221,22 @@ public class UserController {
         }
 
         // 查询用户
-        User user = userService.getUserByUsername(username);
-        if (user == null) {
+        AccountKey account = userService.getAccountByUsername(username);
+        if (account == null) {
             return SaResult.error("用户不存在");
         }
 
         // 验证邮箱是否匹配
-        if (!email.equals(user.getEmail())) {
+        if (!AccountUtils.normalizeEmail(email).equals(account.email())) {
             return SaResult.error("邮箱与用户不匹配");
         }
 
         // 验证成功，生成一个临时令牌，用于重置密码
-        String resetToken = userService.generateResetToken(user.getId());
+        String resetToken = userService.generateResetToken(account.id());
 
         // 返回用户ID和重置令牌
         return SaResult.data(new HashMap<String, Object>() {{
-            put("userId", user.getId());
+            put("userId", account.id());
             put("resetToken", resetToken);
         }});
     }
@@ -0,0 +1,110 @@
+package com.guducat.backend.datasource;
+
+import cn.dev33.satoken.context.SaHolder;
+import cn.dev33.satoken.context.SaTokenContext;
+import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.cache.LocalCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * 读写分离下的"读己之写"。
+ * <p>
+ * 标注 {@code @DS(ReadYourWrites.REPLICA)} 的读方法默认路由到只读副本组。写操作完成后，
+ * 在一个短时间窗口（recentWriteCache 的有效期）内，以下读取改为走主库，避免读到副本尚未同步的旧数据：
+ * </p>
+ * <ul>
+ *     <li>执行写操作的登录会话发起的所有读取，如管理员批量删除后立即刷新列表</li>
+ *     <li>以被修改用户的ID为第一个参数的读取，如修改资料后的 getInfo，以及角色、资料缓存失效后的重新加载，
+ *     避免把副本上的旧数据写进本地缓存</li>
+ *     <li>收到其他节点广播的角色、资料缓存失效后，被修改用户的读取（见 {@link #recordRemoteWrite}），
+ *     否则其他节点会从延迟的副本重新加载旧角色并缓存到 TTL 到期</li>
+ * </ul>
+ * <p>
+ * 副本延迟超过窗口时仍可能读到旧数据，窗口应大于副本的常见延迟。
+ * </p>
+ */
+@Component
+public class ReadYourWrites {
+
+    /**
+     * 读方法使用的数据源键，由 {@link ReplicaDsProcessor} 解析为副本组或主库
+     */
+    public static final String REPLICA = "#replica";
+
+    private static final String USER_PREFIX = "u:";
+
+    private static final String SESSION_PREFIX = "s:";
+
+    // 近期写入记录，格式：<u:用户ID 或 s:登录ID, TRUE>，条目有效期即读主库的窗口
+    @Autowired
+    private LocalCache<String, Boolean> recentWriteCache;
+
+    /**
+     * 记录对某个用户的写入，同时记录当前登录会话
+     *
+     * @param userId 被修改的用户ID
+     */
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            recentWriteCache.put(USER_PREFIX + userId, Boolean.TRUE);
+        }
+        recordSessionWrite();
+    }
+
+    /**
+     * 记录对多个用户的写入，同时记录当前登录会话
+     *
+     * @param userIds 被修改的用户ID
+     */
+    public void recordWrites(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            recentWriteCache.put(USER_PREFIX + userId, Boolean.TRUE);
+        }
+        recordSessionWrite();
+    }
+
+    /**
+     * 记录其他节点对某个用户的写入，在收到缓存失效广播时调用；写入不是当前会话发起的，只记录用户
+     *
+     * @param userId 被修改的用户ID
+     */
+    public void recordRemoteWrite(Long userId) {
+        if (userId != null) {
+            recentWriteCache.put(USER_PREFIX + userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 读取是否应走主库：当前会话或目标用户在窗口内有写入
+     *
+     * @param userId 读取的目标用户ID，可为 null
+     */
+    public boolean shouldReadPrimary(Long userId) {
+        if (userId != null && recentWriteCache.get(USER_PREFIX + userId) != null) {
+            return true;
+        }
+        Object loginId = currentLoginId();
+        return loginId != null && recentWriteCache.get(SESSION_PREFIX + loginId) != null;
+    }
+
+    private void recordSessionWrite() {
+        Object loginId = currentLoginId();
+        if (loginId != null) {
+            recentWriteCache.put(SESSION_PREFIX + loginId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 当前请求的登录ID，不在 Web 请求上下文中或未登录时返回 null
+     */
+    private static Object currentLoginId() {
+        SaTokenContext context = SaHolder.getContext();
+        if (context == null || !context.isValid()) {
+            return null;
+        }
+        return StpUtil.getLoginIdDefaultNull();
+    }
+}
@@ -0,0 +1,41 @@
+package com.guducat.backend.datasource;
+
+import com.baomidou.dynamic.datasource.processor.DsProcessor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 解析 {@code @DS(ReadYourWrites.REPLICA)}：默认返回副本组，需要读己之写时返回主库。
+ * <p>
+ * 方法的第一个参数为 Long 时视为目标用户ID。副本组未配置时，动态数据源在非严格模式下回落到主库。
+ * </p>
+ */
+public class ReplicaDsProcessor extends DsProcessor {
+
+    private final ReadYourWrites readYourWrites;
+
+    private final String primary;
+
+    private final String replicaGroup;
+
+    /**
+     * @param primary 主库数据源名称
+     * @param replicaGroup 副本数据源组名称
+     */
+    public ReplicaDsProcessor(ReadYourWrites readYourWrites, String primary, String replicaGroup) {
+        this.readYourWrites = readYourWrites;
+        this.primary = primary;
+        this.replicaGroup = replicaGroup;
+    }
+
+    @Override
+    public boolean matches(String key) {
+        return ReadYourWrites.REPLICA.equals(key);
+    }
+
+    @Override
+    public String doDetermineDatasource(MethodInvocation invocation, String key) {
+        Object[] args = invocation.getArguments();
+        Long userId = args.length > 0 && args[0] instanceof Long id ? id : null;
+        return readYourWrites.shouldReadPrimary(userId) ? primary : replicaGroup;
+    }
+}
@@ -0,0 +1,11 @@
+package com.guducat.backend.entity;
+
+/**
+ * 账号标识（只包含 id、用户名、邮箱三列），用于分批扫描用户表构建账号过滤器
+ *
+ * @param id 用户ID
+ * @param username 用户名
+ * @param email 邮箱
+ */
+public record AccountKey(Long id, String username, String email) {
+}
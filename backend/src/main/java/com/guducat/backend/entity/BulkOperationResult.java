@@ -0,0 +1,23 @@
+package com.guducat.backend.entity;
+
+import java.util.List;
+
+/**
+ * 管理员批量操作结果
+ *
+ * @param affected 实际影响的用户数
+ * @param chunks 每个分块的执行情况
+ */
+public record BulkOperationResult(int affected, List<Chunk> chunks) {
+
+    /**
+     * 单个分块（一个事务）的执行情况
+     *
+     * @param index 分块序号，从0开始
+     * @param size 分块内的用户数
+     * @param affected 影响的行数
+     * @param millis 耗时（毫秒，包含事务提交与会话清理）
+     */
+    public record Chunk(int index, int size, int affected, long millis) {
+    }
+}
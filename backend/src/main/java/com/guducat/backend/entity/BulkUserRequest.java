@@ -0,0 +1,51 @@
+package com.guducat.backend.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 管理员批量操作请求：按 id 列表或按过滤条件选择用户
+ * <p>
+ * ids 不为空时只处理列表中的用户，过滤条件被忽略；否则按 role、usernamePrefix 过滤，两者至少提供一个。
+ * </p>
+ */
+@Getter
+@Setter
+public class BulkUserRequest {
+
+    /**
+     * 用户ID列表
+     */
+    private List<Long> ids;
+
+    /**
+     * 按角色过滤
+     */
+    private String role;
+
+    /**
+     * 按用户名前缀过滤
+     */
+    private String usernamePrefix;
+
+    /**
+     * 批量修改角色时的新角色
+     */
+    private String newRole;
+
+    /**
+     * 是否指定了 id 列表
+     */
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    /**
+     * 是否指定了过滤条件
+     */
+    public boolean hasFilter() {
+        return (role != null && !role.isEmpty()) || (usernamePrefix != null && !usernamePrefix.isEmpty());
+    }
+}
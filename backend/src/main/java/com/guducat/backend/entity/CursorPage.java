@@ -0,0 +1,14 @@
+package com.guducat.backend.entity;
+
+import java.util.List;
+
+/**
+ * 按主键游标分页的结果
+ *
+ * @param items 本页数据，按 id 升序
+ * @param nextAfter 下一页的游标（本页最后一条的 id），没有更多数据时为 null
+ * @param hasMore 是否还有下一页
+ * @param <T> 行类型
+ */
+public record CursorPage<T>(List<T> items, Long nextAfter, boolean hasMore) {
+}
@@ -0,0 +1,11 @@
+package com.guducat.backend.entity;
+
+/**
+ * 登录校验所需的账号信息（只包含 id、密码哈希、角色三列）
+ *
+ * @param id 用户ID
+ * @param passwordHash 密码哈希
+ * @param role 角色标识
+ */
+public record LoginAccount(Long id, String passwordHash, String role) {
+}
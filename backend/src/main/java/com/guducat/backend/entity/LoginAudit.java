@@ -0,0 +1,16 @@
+package com.guducat.backend.entity;
+
+import java.time.Instant;
+
+/**
+ * 认证审计日志的一条记录，对应 login_audit 表
+ *
+ * @param eventType 事件类型，取值同 AuthMetrics 中的操作名：login、register、reset_password、delete_account、remove_user
+ * @param success 操作是否成功
+ * @param userId 涉及的用户ID，登录失败等无法确定用户时为 null
+ * @param account 提交的账号（用户名或邮箱），超长时截断
+ * @param ip 客户端 IP，非 HTTP 请求中触发时为 null
+ * @param createTime 事件时间
+ */
+public record LoginAudit(String eventType, boolean success, Long userId, String account, String ip, Instant createTime) {
+}
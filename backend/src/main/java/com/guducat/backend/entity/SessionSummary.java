@@ -0,0 +1,12 @@
+package com.guducat.backend.entity;
+
+/**
+ * 管理后台会话列表的行数据（不包含 token 本身）
+ *
+ * @param sessionId 会话标识，由 token 的摘要得到，用于注销指定会话
+ * @param userId 用户ID
+ * @param deviceType 登录设备类型
+ * @param createTime 登录时间戳（毫秒）
+ */
+public record SessionSummary(String sessionId, Long userId, String deviceType, long createTime) {
+}
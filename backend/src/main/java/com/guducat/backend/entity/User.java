@@ -6,6 +6,12 @@ import lombok.Setter;
 @Getter
 @Setter
 public class User {
+
+    /**
+     * 未设置头像时使用的默认头像 URL
+     */
+    public static final String DEFAULT_AVATAR_URL = "https://tse3-mm.cn.bing.net/th/id/OIP-C.1nbiDZSh4TGfU2F8Qwe4QgHaHa?cb=iwc1&rs=1&pid=ImgDetMain";
+
     private Long id;
     private String username;
     private String password;
@@ -19,6 +25,10 @@ public class User {
     private String avatarUrl;
     private String email;
     private String role;
+    /**
+     * 乐观锁版本号，每次更新资料或密码时加一
+     */
+    private Integer version;
 
     /**
      * 获取用户头像 URL
@@ -29,7 +39,7 @@ public class User {
     public String getAvatarUrl() {
         // 如果头像 URL 为空，返回默认头像
         if (avatarUrl == null || avatarUrl.trim().isEmpty()) {
-            return "https://tse3-mm.cn.bing.net/th/id/OIP-C.1nbiDZSh4TGfU2F8Qwe4QgHaHa?cb=iwc1&rs=1&pid=ImgDetMain";
+            return DEFAULT_AVATAR_URL;
         }
         return avatarUrl;
     }
@@ -0,0 +1,27 @@
+package com.guducat.backend.entity;
+
+/**
+ * 用户资料（不包含密码等敏感列），用于展示当前用户与管理员查看单个用户
+ *
+ * @param id 用户ID
+ * @param username 用户名
+ * @param nickname 昵称
+ * @param email 邮箱
+ * @param avatarUrl 头像URL
+ * @param role 角色标识
+ * @param version 乐观锁版本号，更新资料时回传
+ */
+public record UserProfile(Long id, String username, String nickname, String email, String avatarUrl,
+                          String role, Integer version) {
+
+    /**
+     * 获取用户头像 URL，未设置头像时返回默认头像 URL
+     */
+    @Override
+    public String avatarUrl() {
+        if (avatarUrl == null || avatarUrl.trim().isEmpty()) {
+            return User.DEFAULT_AVATAR_URL;
+        }
+        return avatarUrl;
+    }
+}
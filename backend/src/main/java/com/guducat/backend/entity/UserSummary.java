@@ -0,0 +1,13 @@
+package com.guducat.backend.entity;
+
+/**
+ * 管理后台用户列表的行数据（不包含密码等敏感列）
+ *
+ * @param id 用户ID
+ * @param username 用户名
+ * @param nickname 昵称
+ * @param email 邮箱
+ * @param role 角色标识
+ */
+public record UserSummary(Long id, String username, String nickname, String email, String role) {
+}
@@ -0,0 +1,93 @@
+package com.guducat.backend.maintenance;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 注册到 {@link MaintenanceScheduler} 的单个维护任务及其运行统计
+ */
+@Slf4j
+@Getter
+public class MaintenanceJob {
+
+    private final String name;
+
+    private final Duration initialDelay;
+
+    private final Duration period;
+
+    private final Duration maxJitter;
+
+    private final Runnable task;
+
+    private final AtomicLong runCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicLong overrunCount = new AtomicLong();
+
+    private volatile long lastDurationNanos;
+
+    private volatile long maxDurationNanos;
+
+    private volatile long lastRunAt;
+
+    MaintenanceJob(String name, Duration initialDelay, Duration period, Duration maxJitter, Runnable task) {
+        this.name = name;
+        this.initialDelay = initialDelay;
+        this.period = period;
+        this.maxJitter = maxJitter;
+        this.task = task;
+    }
+
+    /**
+     * 执行一次任务并记录耗时，异常只记录日志，不影响后续调度
+     */
+    void run() {
+        lastRunAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failureCount.incrementAndGet();
+            log.error("维护任务 {} 执行失败", name, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            runCount.incrementAndGet();
+            lastDurationNanos = elapsed;
+            if (elapsed > maxDurationNanos) {
+                maxDurationNanos = elapsed;
+            }
+            if (elapsed > period.toNanos()) {
+                overrunCount.incrementAndGet();
+                log.warn("维护任务 {} 耗时 {} ms，超过执行周期 {} ms", name,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), period.toMillis());
+            }
+        }
+    }
+
+    Stats snapshot() {
+        return new Stats(name, period.toMillis(), runCount.get(), failureCount.get(), overrunCount.get(),
+                TimeUnit.NANOSECONDS.toMillis(lastDurationNanos), TimeUnit.NANOSECONDS.toMillis(maxDurationNanos), lastRunAt);
+    }
+
+    /**
+     * 任务运行统计快照
+     *
+     * @param name 任务名称
+     * @param periodMillis 执行周期（毫秒）
+     * @param runCount 累计执行次数
+     * @param failureCount 累计失败次数
+     * @param overrunCount 累计超时次数（耗时超过执行周期）
+     * @param lastDurationMillis 最近一次耗时（毫秒）
+     * @param maxDurationMillis 最大耗时（毫秒）
+     * @param lastRunAt 最近一次开始执行的时间戳（毫秒），从未执行时为0
+     */
+    public record Stats(String name, long periodMillis, long runCount, long failureCount, long overrunCount,
+                        long lastDurationMillis, long maxDurationMillis, long lastRunAt) {
+    }
+}
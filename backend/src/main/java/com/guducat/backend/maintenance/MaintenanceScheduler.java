@@ -0,0 +1,150 @@
+package com.guducat.backend.maintenance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 全局后台维护任务调度器。
+ * <p>
+ * 所有后台定时任务（过期令牌清理、会话清理、缓存清理等）统一注册到这里，由一个固定大小的守护线程池执行，
+ * 线程池随 Spring 容器启动和关闭。每个任务：
+ * </p>
+ * <ul>
+ *     <li>上一次执行结束后才安排下一次，同一任务不会并发执行；</li>
+ *     <li>每次间隔附加随机抖动，避免多个任务或多台机器在同一时刻集中执行；</li>
+ *     <li>记录执行次数、耗时与失败次数，耗时超过执行周期时记为一次超时（overrun）并输出警告。</li>
+ * </ul>
+ * <p>
+ * 容器关闭时在 Web 服务器停止之后停止：不再安排新的执行，等待正在执行的任务自然结束，不中断任务线程
+ * （中断会关闭任务中正在读写的 FileChannel，如会话日志刷盘与压缩）。
+ * </p>
+ */
+@Slf4j
+@Component
+public class MaintenanceScheduler implements SmartLifecycle {
+
+    private final int poolSize;
+
+    private final Map<String, MaintenanceJob> jobs = new ConcurrentHashMap<>();
+
+    private volatile ScheduledThreadPoolExecutor executor;
+
+    public MaintenanceScheduler(@Value("${app.maintenance.pool-size:1}") int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * 注册任务，首次执行延迟与周期相同，抖动为周期的 10%
+     *
+     * @param name 任务名称，需唯一
+     * @param period 执行周期
+     * @param task 任务内容
+     */
+    public void register(String name, Duration period, Runnable task) {
+        register(name, period, period, period.dividedBy(10), task);
+    }
+
+    /**
+     * 注册任务。容器已启动时立即开始调度，否则在容器启动时开始调度。
+     *
+     * @param name 任务名称，需唯一
+     * @param initialDelay 首次执行延迟
+     * @param period 执行周期（上一次结束到下一次开始的间隔）
+     * @param maxJitter 每次间隔附加的最大随机抖动
+     * @param task 任务内容
+     */
+    public void register(String name, Duration initialDelay, Duration period, Duration maxJitter, Runnable task) {
+        MaintenanceJob job = new MaintenanceJob(name, initialDelay, period, maxJitter, task);
+        if (jobs.putIfAbsent(name, job) != null) {
+            throw new IllegalStateException("维护任务已存在：" + name);
+        }
+        ScheduledThreadPoolExecutor current = executor;
+        if (current != null) {
+            schedule(current, job, job.getInitialDelay());
+        }
+    }
+
+    /**
+     * 所有已注册任务的运行统计
+     */
+    public List<MaintenanceJob.Stats> getJobStats() {
+        List<MaintenanceJob.Stats> stats = new ArrayList<>();
+        jobs.values().forEach(job -> stats.add(job.snapshot()));
+        return stats;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ScheduledThreadPoolExecutor created = new ScheduledThreadPoolExecutor(poolSize, r -> {
+            Thread thread = new Thread(r, "maintenance-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        created.setRemoveOnCancelPolicy(true);
+        // 关闭时丢弃尚未到期的执行，只等待正在执行的任务
+        created.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        created.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        executor = created;
+        jobs.values().forEach(job -> schedule(created, job, job.getInitialDelay()));
+        log.info("后台维护调度器已启动，共 {} 个任务", jobs.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        ScheduledThreadPoolExecutor current = executor;
+        if (current == null) {
+            return;
+        }
+        executor = null;
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("后台维护任务未能在 10 秒内结束");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 在 Web 服务器（优雅关闭与停止的阶段分别为 DEFAULT_PHASE - 1024 和 - 2048）之后停止，
+     * 处理中的请求仍在写入会话时，刷盘等任务继续执行
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void schedule(ScheduledThreadPoolExecutor target, MaintenanceJob job, Duration baseDelay) {
+        long jitterNanos = job.getMaxJitter().toNanos();
+        long delayNanos = baseDelay.toNanos() + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        target.schedule(() -> {
+            job.run();
+            // 只在调度器仍然是本次启动的实例时继续安排下一次
+            if (executor == target && !target.isShutdown()) {
+                schedule(target, job, job.getPeriod());
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,23 @@
+package com.guducat.backend.mapper;
+
+import com.guducat.backend.entity.LoginAudit;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface LoginAuditMapper {
+
+    /**
+     * 批量写入审计记录，一条多行 INSERT 完成
+     */
+    @Insert("<script>" +
+            "INSERT INTO login_audit (event_type, success, user_id, account, ip, create_time) VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.eventType}, #{r.success}, #{r.userId}, #{r.account}, #{r.ip}, #{r.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("records") List<LoginAudit> records);
+}
@@ -1,31 +1,60 @@
 package com.guducat.backend.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.guducat.backend.entity.AccountKey;
+import com.guducat.backend.entity.LoginAccount;
 import com.guducat.backend.entity.User;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
     /**
-     * 根据用户名查询用户
+     * 根据ID查询用户资料（不包含密码）
+     */
+    @Select("SELECT id, username, nickname, email, avatar_url, role, version FROM user WHERE id = #{id}")
+    UserProfile findProfileById(@Param("id") Long id);
+
+    /**
+     * 根据ID查询角色，供权限校验使用
      */
-    @Select("SELECT * FROM user WHERE username = #{username}")
-    User findByUsername(@Param("username") String username);
+    @Select("SELECT role FROM user WHERE id = #{id}")
+    String findRoleById(@Param("id") Long id);
 
     /**
-     * 根据邮箱查询用户
+     * 根据用户名查询账号标识（id、用户名、邮箱），供找回密码时校验身份
      */
-    @Select("SELECT * FROM user WHERE email = #{email}")
-    User findByEmail(@Param("email") String email);
+    @Select("SELECT id, username, email FROM user WHERE username = #{username}")
+    AccountKey findAccountKeyByUsername(@Param("username") String username);
 
     /**
-     * 根据用户名和密码查询用户
+     * 登录账号解析：一次查询同时按用户名或邮箱匹配，只返回登录所需的列
+     * <p>
+     * email 需传入规范化后的邮箱，为 null 时只按用户名匹配；两者都命中时优先返回用户名匹配的账号。
+     * </p>
      */
-    @Select("SELECT * FROM user WHERE username = #{username} AND password = #{password}")
-    User findByUsernameAndPassword(@Param("username") String username, @Param("password") String password);
+    @Select("<script>" +
+            "SELECT id, password, role FROM user WHERE username = #{account}" +
+            "<if test='email != null'> OR email = #{email}</if>" +
+            " ORDER BY CASE WHEN username = #{account} THEN 0 ELSE 1 END LIMIT 1" +
+            "</script>")
+    LoginAccount findLoginAccount(@Param("account") String account, @Param("email") String email);
+
+    /**
+     * 检查用户ID是否存在
+     */
+    @Select("SELECT COUNT(*) FROM user WHERE id = #{id}")
+    int checkIdExists(@Param("id") Long id);
 
     /**
      * 检查用户名是否已存在
@@ -38,4 +67,86 @@ public interface UserMapper extends BaseMapper<User> {
      */
     @Select("SELECT COUNT(*) FROM user WHERE email = #{email}")
     int checkEmailExists(@Param("email") String email);
-}
\ No newline at end of file
+
+    /**
+     * 按主键分批扫描账号标识：返回 id 大于 afterId 的前 limit 条
+     */
+    @Select("SELECT id, username, email FROM user WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<AccountKey> scanAccountKeys(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 管理后台用户列表：返回 id 大于 after 的前 limit 条，按 id 升序，可按角色和用户名前缀过滤
+     * <p>
+     * usernamePrefix 需已转义 LIKE 通配符（转义字符为 !）。
+     * </p>
+     */
+    @Select("<script>" +
+            "SELECT id, username, nickname, email, role FROM user WHERE id > #{after}" +
+            "<if test='role != null'> AND role = #{role}</if>" +
+            "<if test='usernamePrefix != null'> AND username LIKE CONCAT(#{usernamePrefix}, '%') ESCAPE '!'</if>" +
+            " ORDER BY id LIMIT #{limit}" +
+            "</script>")
+    List<UserSummary> listUserSummaries(@Param("after") long after, @Param("limit") int limit,
+                                        @Param("role") String role, @Param("usernamePrefix") String usernamePrefix);
+
+    /**
+     * 按 id 升序逐行读取全部用户（不包含密码），用于导出
+     * <p>
+     * 需在事务内使用并在读取完成后关闭。MySQL 需在连接串中开启 useCursorFetch=true，
+     * 驱动才会按 fetchSize 分批拉取，否则会一次读取整个结果集。
+     * </p>
+     */
+    @Select("SELECT id, username, nickname, email, role FROM user ORDER BY id")
+    @Options(fetchSize = 1000)
+    Cursor<UserSummary> streamUserSummaries();
+
+    /**
+     * 部分更新用户资料：只写入非 null 的列，并将版本号加一
+     * <p>
+     * version 不为 null 时作为乐观锁条件，版本不一致则不更新（返回0）。
+     * 邮箱唯一性依赖 uk_email 唯一索引，冲突时抛出 DuplicateKeyException。
+     * </p>
+     */
+    @Update("<script>" +
+            "UPDATE user <set>" +
+            "<if test='nickname != null'>nickname = #{nickname},</if>" +
+            "<if test='email != null'>email = #{email},</if>" +
+            "<if test='avatarUrl != null'>avatar_url = #{avatarUrl},</if>" +
+            "version = version + 1" +
+            "</set> WHERE id = #{id}" +
+            "<if test='version != null'> AND version = #{version}</if>" +
+            "</script>")
+    int updateProfile(@Param("id") Long id, @Param("nickname") String nickname, @Param("email") String email,
+                      @Param("avatarUrl") String avatarUrl, @Param("version") Integer version);
+
+    /**
+     * 更新密码哈希，并将版本号加一
+     */
+    @Update("UPDATE user SET password = #{password}, version = version + 1 WHERE id = #{id}")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * 锁定并返回其中仍存在的用户ID，批量操作在同一事务中只处理这些用户，审计记录与实际影响的用户一致
+     */
+    @Select("<script>" +
+            "SELECT id FROM user WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量修改角色，一条 UPDATE ... WHERE id IN (...) 完成
+     */
+    @Update("<script>" +
+            "UPDATE user SET role = #{role} WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateRoleByIds(@Param("ids") Collection<Long> ids, @Param("role") String role);
+
+    /**
+     * 替换密码哈希，仅当当前哈希仍为 oldHash 时才更新（用于登录后重新哈希，避免覆盖并发修改的密码）
+     */
+    @Update("UPDATE user SET password = #{newHash} WHERE id = #{id} AND password = #{oldHash}")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+}
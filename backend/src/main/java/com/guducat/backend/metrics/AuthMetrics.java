@@ -0,0 +1,89 @@
+package com.guducat.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 用户认证相关操作的耗时与结果统计。
+ * <p>
+ * 每个操作记录到计时器 {@code auth.operations}，以 operation 和 outcome 两个标签区分，
+ * outcome 取值为 success、failure（操作返回失败）和 error（抛出异常）。计时器发布百分位直方图，
+ * 可在 Prometheus 中按 operation 计算 p99；各 outcome 的调用次数即计时器的 count。
+ * </p>
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String OPERATION_TIMER = "auth.operations";
+
+    public static final String LOGIN = "login";
+
+    public static final String REGISTER = "register";
+
+    public static final String RESET_PASSWORD = "reset_password";
+
+    public static final String DELETE_ACCOUNT = "delete_account";
+
+    public static final String REMOVE_USER = "remove_user";
+
+    private static final String SUCCESS = "success";
+
+    private static final String FAILURE = "failure";
+
+    private static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    // 按 operation 与 outcome 缓存计时器，避免每次调用都构建并查找
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 执行并记录返回布尔结果的操作，true 记为 success
+     */
+    public boolean record(String operation, BooleanSupplier action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            boolean success = action.getAsBoolean();
+            outcome = success ? SUCCESS : FAILURE;
+            return success;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 执行并记录操作，返回值满足 success 时记为 success
+     */
+    public <T> T record(String operation, Supplier<T> action, Predicate<? super T> success) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = success.test(result) ? SUCCESS : FAILURE;
+            return result;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(OPERATION_TIMER)
+                .description("用户认证相关操作耗时")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
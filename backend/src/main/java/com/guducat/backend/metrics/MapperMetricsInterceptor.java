@@ -0,0 +1,87 @@
+package com.guducat.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 Mapper 语句统计执行耗时的 MyBatis 插件。
+ * <p>
+ * 每条语句记录到计时器 {@code mybatis.statements}，标签 statement 为 {@code Mapper 类名.方法名}，
+ * command 为 SELECT、UPDATE 等，outcome 为 success 或 error，并发布百分位直方图。
+ * 游标查询（queryCursor）只计入打开游标的耗时，不包含之后逐行读取的时间。
+ * 开启 Server-Timing 时同时累加到当前请求的 db 阶段，见 {@link RequestTiming}。
+ * </p>
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    public static final String STATEMENT_TIMER = "mybatis.statements";
+
+    private final MeterRegistry registry;
+
+    // 按语句 ID 与结果缓存计时器
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MapperMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        RequestTiming timing = RequestTiming.current();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer(statement, success).record(elapsed, TimeUnit.NANOSECONDS);
+            if (timing != null) {
+                timing.add(RequestTiming.Phase.DB, elapsed);
+            }
+        }
+    }
+
+    private Timer timer(MappedStatement statement, boolean success) {
+        String outcome = success ? "success" : "error";
+        return timers.computeIfAbsent(statement.getId() + ':' + outcome, key -> Timer.builder(STATEMENT_TIMER)
+                .description("Mapper 语句执行耗时")
+                .tag("statement", shortName(statement.getId()))
+                .tag("command", statement.getSqlCommandType().name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * 去掉包名：com.guducat.backend.mapper.UserMapper.findLoginAccount → UserMapper.findLoginAccount
+     */
+    static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        return statementId.substring(type + 1);
+    }
+}
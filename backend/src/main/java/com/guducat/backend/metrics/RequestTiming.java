@@ -0,0 +1,152 @@
+package com.guducat.backend.metrics;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 单个请求的分阶段耗时，用于生成 {@code Server-Timing} 响应头与慢请求日志。
+ * <p>
+ * 由 {@link ServerTimingFilter} 在请求开始时绑定到当前线程，数据库、密码哈希、登录鉴权与序列化等埋点通过
+ * {@link #current()} 取得并累加耗时；未开启或不在请求线程中时 {@link #current()} 返回 null，埋点只多一次 ThreadLocal 读取。
+ * 同一阶段多次执行时累加耗时与次数，不同阶段之间可能重叠（如鉴权中的角色查询同时计入 auth 与 db）。
+ * 只在请求线程内使用，不是线程安全的。
+ * </p>
+ */
+public final class RequestTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 计时阶段，name 即 Server-Timing 中的指标名
+     */
+    public enum Phase {
+        // Mapper 语句执行
+        DB("db"),
+        // 等待密码哈希计算
+        HASH("hash"),
+        // 鉴权检查与登录时的 token 创建
+        AUTH("auth"),
+        // 响应体 JSON 序列化
+        SERIALIZE("ser");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos;
+
+    private final long[] nanos = new long[PHASES.length];
+
+    private final int[] counts = new int[PHASES.length];
+
+    private boolean headerWritten;
+
+    private RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 当前请求的计时，未开启或不在请求中时返回 null
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 开始计时并绑定到当前线程，须在 finally 中调用 {@link #end()}
+     */
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * 解除与当前线程的绑定
+     */
+    void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 累加一个阶段的耗时
+     *
+     * @param phase 阶段
+     * @param elapsedNanos 耗时（纳秒）
+     */
+    public void add(Phase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    /**
+     * 阶段累计耗时（纳秒）
+     */
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * 阶段执行次数
+     */
+    public int getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * 请求开始至今的耗时（纳秒）
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 在响应体写出之前写入 Server-Timing 响应头，之后 {@link ServerTimingFilter} 不再重复写入
+     */
+    public void writeHeader(HttpHeaders headers) {
+        headers.add(HEADER, toHeaderValue());
+        headerWritten = true;
+    }
+
+    boolean isHeaderWritten() {
+        return headerWritten;
+    }
+
+    /**
+     * 生成 Server-Timing 响应头的值，只包含执行过的阶段，最后是请求开始至今的总耗时，例如：
+     * {@code db;dur=1.204;desc="2", hash;dur=98.551;desc="1", total;dur=101.377}
+     */
+    public String toHeaderValue() {
+        StringBuilder value = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            int count = counts[phase.ordinal()];
+            if (count > 0) {
+                value.append(phase.metricName).append(";dur=");
+                appendMillis(value, nanos[phase.ordinal()]);
+                value.append(";desc=\"").append(count).append("\", ");
+            }
+        }
+        value.append("total;dur=");
+        appendMillis(value, elapsedNanos());
+        return value.toString();
+    }
+
+    /**
+     * 以毫秒为单位、保留三位小数追加，避免 String.format 的开销
+     */
+    private static void appendMillis(StringBuilder target, long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        long fraction = micros % 1000;
+        target.append(micros / 1000).append('.');
+        if (fraction < 100) {
+            target.append(fraction < 10 ? "00" : "0");
+        }
+        target.append(fraction);
+    }
+}
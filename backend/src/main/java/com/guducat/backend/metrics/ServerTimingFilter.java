@@ -0,0 +1,60 @@
+package com.guducat.backend.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为每个请求记录分阶段耗时，并写入 {@code Server-Timing} 响应头。
+ * <p>
+ * 在 Sa-Token 拦截器之前执行，请求期间的埋点累加到 {@link RequestTiming}。JSON 响应由
+ * {@link TimedJacksonHttpMessageConverter} 在写出响应体之前写入响应头（写出响应体后响应即已提交，无法再添加响应头）；
+ * 其他尚未提交的响应在请求结束时由这里写入。
+ * </p>
+ * <p>
+ * 耗时超过 slowThresholdMillis 的请求按 logSampleRate 抽样输出一条包含各阶段耗时的日志，阈值为 0 时不输出。
+ * </p>
+ */
+@Slf4j
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final long slowThresholdNanos;
+
+    private final double logSampleRate;
+
+    /**
+     * @param slowThresholdMillis 慢请求阈值（毫秒），为 0 时不输出慢请求日志
+     * @param logSampleRate 慢请求日志的抽样比例，取值 0～1
+     */
+    public ServerTimingFilter(long slowThresholdMillis, double logSampleRate) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timing.end();
+            if (!timing.isHeaderWritten() && !response.isCommitted()) {
+                response.addHeader(RequestTiming.HEADER, timing.toHeaderValue());
+            }
+            long elapsed = timing.elapsedNanos();
+            if (slowThresholdNanos > 0 && elapsed >= slowThresholdNanos
+                    && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                log.warn("慢请求 {} {}，耗时 {} ms：{}", request.getMethod(), request.getRequestURI(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), timing.toHeaderValue());
+            }
+        }
+    }
+}
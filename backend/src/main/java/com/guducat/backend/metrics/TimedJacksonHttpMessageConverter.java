@@ -0,0 +1,53 @@
+package com.guducat.backend.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 统计 JSON 序列化耗时的消息转换器。
+ * <p>
+ * 开启 Server-Timing 时替换 Spring Boot 默认的 {@link MappingJackson2HttpMessageConverter}：先序列化到内存，
+ * 记入 {@link RequestTiming.Phase#SERIALIZE}，写入 Server-Timing 响应头后再写出响应体。
+ * 多一次响应体复制，只适合接口返回的小型 JSON；不在计时的请求中时与默认转换器相同，直接写出。
+ * </p>
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        timing.add(RequestTiming.Phase.SERIALIZE, System.nanoTime() - start);
+        timing.writeHeader(outputMessage.getHeaders());
+        body.writeTo(outputMessage.getBody());
+    }
+}
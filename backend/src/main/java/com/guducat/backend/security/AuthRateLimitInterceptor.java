@@ -0,0 +1,98 @@
+package com.guducat.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 登录、注册、找回密码等认证接口的限流拦截器。
+ * <p>
+ * 每个接口按客户端 IP 和提交的账号（可选）分别限流，在 Sa-Token 拦截器与控制器之前执行，
+ * 超限的请求直接返回 429，不查询数据库也不计算密码哈希。客户端 IP 取 {@code request.getRemoteAddr()}，
+ * 部署在反向代理之后时需配置 {@code server.forward-headers-strategy} 使其为真实客户端地址。
+ * 规则按解码后的请求路径查找，与 Spring MVC 路由一致，{@code /user/doLog%69n} 这类编码后的路径同样受限。
+ * </p>
+ */
+public class AuthRateLimitInterceptor implements HandlerInterceptor {
+
+    private static final byte[] REJECTED_BODY = "{\"code\":429,\"msg\":\"请求过于频繁，请稍后再试\",\"data\":null}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, Rule> rules;
+
+    /**
+     * @param rules 格式：<请求路径, 限流规则>
+     */
+    public AuthRateLimitInterceptor(Map<String, Rule> rules) {
+        this.rules = Map.copyOf(rules);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Rule rule = rules.get(UrlPathHelper.defaultInstance.getLookupPathForRequest(request));
+        if (rule == null) {
+            return true;
+        }
+        SlidingWindowRateLimiter rejectedBy = rule.tryAcquire(request);
+        if (rejectedBy == null) {
+            return true;
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejectedBy.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+        return false;
+    }
+
+    /**
+     * 拦截的请求路径
+     */
+    public List<String> getPaths() {
+        return new ArrayList<>(rules.keySet());
+    }
+
+    /**
+     * 全部限流器，格式：<请求路径, 规则>
+     */
+    public Map<String, Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 一个接口的限流规则，先按 IP 再按账号检查
+     *
+     * @param perIp 按客户端 IP 的限流器，为 null 时不限制
+     * @param perAccount 按账号的限流器，为 null 时不限制
+     * @param accountParameter 账号所在的请求参数名
+     */
+    public record Rule(SlidingWindowRateLimiter perIp, SlidingWindowRateLimiter perAccount, String accountParameter) {
+
+        /**
+         * @return 通过时返回 null，否则返回拒绝该请求的限流器
+         */
+        SlidingWindowRateLimiter tryAcquire(HttpServletRequest request) {
+            if (perIp != null && !perIp.tryAcquire(request.getRemoteAddr())) {
+                return perIp;
+            }
+            if (perAccount != null) {
+                String account = request.getParameter(accountParameter);
+                if (account != null && !account.isBlank() && !perAccount.tryAcquire(account)) {
+                    return perAccount;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.guducat.backend.security;
+
+import cn.dev33.satoken.secure.SaSecureUtil;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 密码哈希算法实现。
+ * <p>
+ * 新密码使用加盐的 PBKDF2-HMAC-SHA256，存储格式为
+ * {@code $pbkdf2-sha256$<迭代次数>$<盐>$<哈希>}（盐和哈希均为无填充 Base64）。
+ * 同时兼容旧版本的无盐 SHA-256（64 位十六进制）哈希，便于登录时平滑迁移。
+ * </p>
+ * <p>
+ * 本类只负责计算，不关心在哪个线程执行，线程调度见 {@link PasswordHashingService}。
+ * </p>
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final int SALT_BYTES = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * 使用随机盐计算密码哈希
+     *
+     * @param rawPassword 明文密码
+     * @param iterations 迭代次数
+     * @return 带算法参数的哈希串
+     */
+    public static String hash(String rawPassword, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(rawPassword, salt, iterations);
+        return PREFIX + iterations + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * 校验明文密码与存储的哈希是否匹配，兼容旧版 SHA-256 哈希
+     *
+     * @param rawPassword 明文密码
+     * @param storedHash 数据库中存储的哈希
+     * @return 是否匹配
+     */
+    public static boolean matches(String rawPassword, String storedHash) {
+        if (rawPassword == null || storedHash == null) {
+            return false;
+        }
+        if (isLegacy(storedHash)) {
+            return constantTimeEquals(SaSecureUtil.sha256(rawPassword), storedHash);
+        }
+        if (!storedHash.startsWith(PREFIX)) {
+            return false;
+        }
+        String[] parts = storedHash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = DECODER.decode(parts[1]);
+            byte[] expected = DECODER.decode(parts[2]);
+            return MessageDigest.isEqual(expected, pbkdf2(rawPassword, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 是否需要重新计算哈希：旧版 SHA-256 哈希，或迭代次数低于当前目标
+     *
+     * @param storedHash 数据库中存储的哈希
+     * @param targetIterations 当前目标迭代次数
+     * @return 是否需要重新哈希
+     */
+    public static boolean needsRehash(String storedHash, int targetIterations) {
+        if (storedHash == null || isLegacy(storedHash)) {
+            return true;
+        }
+        return iterationsOf(storedHash) < targetIterations;
+    }
+
+    /**
+     * 是否为旧版无盐 SHA-256 哈希（64 位十六进制）
+     */
+    public static boolean isLegacy(String storedHash) {
+        if (storedHash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < storedHash.length(); i++) {
+            if (Character.digit(storedHash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int iterationsOf(String storedHash) {
+        if (!storedHash.startsWith(PREFIX)) {
+            return 0;
+        }
+        int end = storedHash.indexOf('$', PREFIX.length());
+        try {
+            return Integer.parseInt(storedHash.substring(PREFIX.length(), end));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("当前 JDK 不支持 " + ALGORITHM, e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        return MessageDigest.isEqual(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+}
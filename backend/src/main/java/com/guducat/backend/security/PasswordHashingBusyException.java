@@ -0,0 +1,11 @@
+package com.guducat.backend.security;
+
+/**
+ * 密码哈希线程池已满或等待超时时抛出，表示服务暂时繁忙
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
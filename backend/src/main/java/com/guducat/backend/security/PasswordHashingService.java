@@ -0,0 +1,212 @@
+package com.guducat.backend.security;
+
+import com.guducat.backend.metrics.RequestTiming;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希服务。
+ * <p>
+ * 所有哈希计算都在独立的有界线程池中执行：线程数和等待队列长度固定，队列满时立即拒绝并抛出
+ * {@link PasswordHashingBusyException}，而不是让请求线程无限排队。这样登录高峰时最多只有
+ * "线程数 + 队列长度" 个 Tomcat 工作线程在等待哈希结果，其余工作线程仍可正常处理 getInfo 等请求。
+ * </p>
+ * <p>
+ * 迭代次数未显式配置时，启动时会按目标耗时自动校准。
+ * </p>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    // 校准时使用的基准迭代次数
+    private static final int CALIBRATION_ITERATIONS = 10_000;
+
+    private static final int MIN_ITERATIONS = 10_000;
+
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int iterations;
+
+    private final long timeoutMillis;
+
+    // 按当前迭代次数计算的占位哈希，校验不存在的账号时使用
+    private final String dummyHash;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param poolSize 哈希线程数，小于等于0时取 CPU 核数
+     * @param queueCapacity 等待队列长度，为0时不排队
+     * @param iterations 固定迭代次数，小于等于0时按目标耗时自动校准
+     * @param targetMillis 自动校准时单次哈希的目标耗时（毫秒）
+     * @param timeoutMillis 请求线程等待哈希结果的最长时间（毫秒）
+     */
+    public PasswordHashingService(@Value("${app.password.pool-size:0}") int poolSize,
+                                  @Value("${app.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.password.iterations:0}") int iterations,
+                                  @Value("${app.password.target-millis:100}") long targetMillis,
+                                  @Value("${app.password.timeout-millis:5000}") long timeoutMillis) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread thread = new Thread(r, "password-hash-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.iterations = iterations > 0 ? iterations : calibrate(targetMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.dummyHash = PasswordHasher.hash(UUID.randomUUID().toString(), this.iterations);
+        log.info("密码哈希线程池已启动：线程数={}，队列长度={}，PBKDF2迭代次数={}", threads, queueCapacity, this.iterations);
+    }
+
+    /**
+     * 计算密码哈希，阻塞等待结果
+     *
+     * @param rawPassword 明文密码
+     * @return 哈希串
+     * @throws PasswordHashingBusyException 线程池已满或等待超时
+     */
+    public String hash(String rawPassword) {
+        return await(submit(() -> PasswordHasher.hash(rawPassword, iterations)));
+    }
+
+    /**
+     * 校验密码，阻塞等待结果
+     *
+     * @param rawPassword 明文密码
+     * @param storedHash 数据库中存储的哈希
+     * @return 是否匹配
+     * @throws PasswordHashingBusyException 线程池已满或等待超时
+     */
+    public boolean matches(String rawPassword, String storedHash) {
+        return await(submit(() -> PasswordHasher.matches(rawPassword, storedHash)));
+    }
+
+    /**
+     * 以占位哈希执行一次校验，耗时与校验真实账号相同，结果丢弃。
+     * <p>
+     * 账号不存在时调用，使登录耗时无法用来判断账号是否存在。
+     * </p>
+     *
+     * @param rawPassword 明文密码
+     * @throws PasswordHashingBusyException 线程池已满或等待超时
+     */
+    public void matchesDummy(String rawPassword) {
+        matches(rawPassword, dummyHash);
+    }
+
+    /**
+     * 异步计算密码哈希，用于登录成功后的重新哈希，不阻塞请求线程
+     *
+     * @param rawPassword 明文密码
+     * @return 哈希结果
+     * @throws PasswordHashingBusyException 线程池已满
+     */
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> PasswordHasher.hash(rawPassword, iterations));
+    }
+
+    /**
+     * 存储的哈希是否需要按当前参数重新计算
+     * <p>
+     * 自动校准的结果每次启动会有小幅波动，只有存储的迭代次数低于当前值的 80% 时才重新哈希。
+     * </p>
+     */
+    public boolean needsRehash(String storedHash) {
+        return PasswordHasher.needsRehash(storedHash, iterations / 5 * 4);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * 因线程池已满或等待超时而被拒绝的次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 当前排队等待的哈希任务数
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new PasswordHashingBusyException("密码哈希线程池已满", e);
+        }
+    }
+
+    /**
+     * 等待哈希结果，开启 Server-Timing 时等待时间（含排队）计入当前请求的 hash 阶段
+     */
+    private <T> T await(Future<T> future) {
+        RequestTiming timing = RequestTiming.current();
+        long start = System.nanoTime();
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCount.increment();
+            throw new PasswordHashingBusyException("等待密码哈希超时", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("等待密码哈希被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        } finally {
+            if (timing != null) {
+                timing.add(RequestTiming.Phase.HASH, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * 按目标耗时校准迭代次数：PBKDF2 的耗时与迭代次数成正比
+     */
+    private static int calibrate(long targetMillis) {
+        // 预热，避免把 JIT 编译时间计入
+        for (int i = 0; i < 3; i++) {
+            PasswordHasher.hash("calibration", CALIBRATION_ITERATIONS);
+        }
+        long start = System.nanoTime();
+        PasswordHasher.hash("calibration", CALIBRATION_ITERATIONS);
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        long scaled = CALIBRATION_ITERATIONS * TimeUnit.MILLISECONDS.toNanos(targetMillis) / elapsedNanos;
+        // 取整到千位
+        long rounded = scaled / 1000 * 1000;
+        return (int) Math.min(MAX_ITERATIONS, Math.max(MIN_ITERATIONS, rounded));
+    }
+}
@@ -0,0 +1,166 @@
+package com.guducat.backend.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 重置密码令牌存储。
+ * <p>
+ * 每个用户只保存一条记录（令牌 + 过期时间），读取和校验都是对同一条记录的一次原子读取。
+ * 由于所有令牌的有效期相同，写入顺序即过期顺序，因此另用一个 FIFO 队列按过期先后排列记录：
+ * 清理时只需从队头弹出已过期的记录，开销与过期条目数成正比，而不是扫描全部令牌。
+ * </p>
+ * <p>
+ * 存储有硬性容量上限，超出时淘汰最早签发的令牌。
+ * </p>
+ */
+@Component
+public class ResetTokenStore {
+
+    private final ConcurrentHashMap<Long, TokenRecord> records = new ConcurrentHashMap<>();
+
+    // 按过期时间排序的记录队列，可能包含已被覆盖或移除的过期记录，弹出时忽略即可
+    private final ConcurrentLinkedQueue<TokenRecord> expiryQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    private final long ttlNanos;
+
+    private final int maxSize;
+
+    private final LongSupplier clock;
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder evictedCount = new LongAdder();
+
+    @Autowired
+    public ResetTokenStore(@Value("${app.reset-token.ttl-minutes:30}") long ttlMinutes,
+                           @Value("${app.reset-token.max-size:500000}") int maxSize) {
+        this(Duration.ofMinutes(ttlMinutes), maxSize, System::nanoTime);
+    }
+
+    /**
+     * @param clock 纳秒时钟，测试时可替换为可控时钟
+     */
+    public ResetTokenStore(Duration ttl, int maxSize, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * 为用户签发新令牌，覆盖该用户之前的令牌
+     *
+     * @param userId 用户ID
+     * @return 新令牌
+     */
+    public String issue(Long userId) {
+        TokenRecord record = new TokenRecord(userId, UUID.randomUUID().toString(), clock.getAsLong() + ttlNanos);
+        records.put(userId, record);
+        expiryQueue.offer(record);
+        queuedCount.incrementAndGet();
+        enforceCapacity();
+        return record.token();
+    }
+
+    /**
+     * 校验令牌：存在、匹配且未过期
+     *
+     * @param userId 用户ID
+     * @param token 令牌
+     * @return 是否有效
+     */
+    public boolean verify(Long userId, String token) {
+        TokenRecord record = records.get(userId);
+        return record != null && token != null
+                && !record.isExpired(clock.getAsLong())
+                && MessageDigest.isEqual(record.token().getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 移除用户的令牌
+     *
+     * @param userId 用户ID
+     */
+    public void remove(Long userId) {
+        records.remove(userId);
+    }
+
+    /**
+     * 清理已过期的令牌，只处理队头已过期的记录
+     *
+     * @return 本次清理的过期令牌数
+     */
+    public int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        TokenRecord head;
+        while ((head = expiryQueue.peek()) != null && head.isExpired(now)) {
+            if (expiryQueue.remove(head)) {
+                queuedCount.decrementAndGet();
+                // 只有记录仍是该用户的当前令牌时才删除，避免误删重新签发的令牌
+                if (records.remove(head.userId(), head)) {
+                    purged++;
+                }
+            }
+        }
+        expiredCount.add(purged);
+        return purged;
+    }
+
+    /**
+     * 当前有效（尚未清理）的令牌数
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * 累计因过期被清理的令牌数
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * 累计因超出容量被淘汰的令牌数
+     */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /**
+     * 超出容量时从队头淘汰最早签发的记录；队列中的失效记录同样计入队列长度，一并受上限约束
+     */
+    private void enforceCapacity() {
+        while (records.size() > maxSize || queuedCount.get() > maxSize * 2) {
+            TokenRecord head = expiryQueue.poll();
+            if (head == null) {
+                return;
+            }
+            queuedCount.decrementAndGet();
+            if (records.remove(head.userId(), head)) {
+                evictedCount.increment();
+            }
+        }
+    }
+
+    private record TokenRecord(Long userId, String token, long expireAt) {
+
+        boolean isExpired(long now) {
+            return now - expireAt >= 0;
+        }
+    }
+}
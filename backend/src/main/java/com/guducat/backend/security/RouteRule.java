@@ -0,0 +1,64 @@
+package com.guducat.backend.security;
+
+import cn.dev33.satoken.stp.StpUtil;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 单个路由的鉴权规则：是否需要登录，以及需要具备的角色（全部满足）
+ *
+ * @param requireLogin 是否需要登录
+ * @param roles 需要具备的角色
+ */
+public record RouteRule(boolean requireLogin, List<String> roles) {
+
+    /**
+     * 不需要任何鉴权
+     */
+    public static final RouteRule NONE = new RouteRule(false, List.of());
+
+    /**
+     * 只需要登录
+     */
+    public static final RouteRule LOGIN = new RouteRule(true, List.of());
+
+    public RouteRule {
+        roles = List.copyOf(roles);
+    }
+
+    /**
+     * 需要登录并具备指定角色
+     */
+    public static RouteRule role(String role) {
+        return new RouteRule(true, List.of(role));
+    }
+
+    /**
+     * 合并两条规则，结果同时满足两者的要求
+     */
+    public RouteRule merge(RouteRule other) {
+        if (other == NONE || other.equals(this)) {
+            return this;
+        }
+        if (this == NONE) {
+            return other;
+        }
+        Set<String> merged = new LinkedHashSet<>(roles);
+        merged.addAll(other.roles);
+        return new RouteRule(requireLogin || other.requireLogin, List.copyOf(merged));
+    }
+
+    /**
+     * 校验当前请求，不满足时抛出 Sa-Token 的 NotLoginException 或 NotRoleException
+     */
+    public void check() {
+        if (requireLogin) {
+            StpUtil.checkLogin();
+        }
+        for (String role : roles) {
+            StpUtil.checkRole(role);
+        }
+    }
+}
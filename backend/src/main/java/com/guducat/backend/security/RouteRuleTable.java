@@ -0,0 +1,200 @@
+package com.guducat.backend.security;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的路由鉴权表。
+ * <p>
+ * 启动时把所有规则编译成按路径段组织的前缀树，并预先算好每个节点最终生效的规则（祖先节点的通配规则与本节点规则合并），
+ * 请求时只需沿请求路径走一遍前缀树即可得到规则，耗时与路径长度成正比，与规则数量无关。
+ * 完全匹配的路径另外放在一张哈希表中，大多数请求一次查表即可完成。
+ * </p>
+ * <p>
+ * 支持两种模式：完整路径（如 {@code /user/getInfo}）与以 {@code /**} 结尾的前缀（如 {@code /admin/**}，
+ * 同时匹配 {@code /admin} 本身）。同一路径命中多条规则时，要求全部满足。路径中的空段（连续的 {@code /}）会被忽略。
+ * </p>
+ */
+public final class RouteRuleTable {
+
+    private static final String WILDCARD = "**";
+
+    private final Node root;
+
+    // 已声明的完整路径（规范化后）到最终规则的映射
+    private final Map<String, RouteRule> exact;
+
+    private final int ruleCount;
+
+    private RouteRuleTable(Node root, Map<String, RouteRule> exact, int ruleCount) {
+        this.root = root;
+        this.exact = exact;
+        this.ruleCount = ruleCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 解析请求路径对应的规则
+     *
+     * @param path 请求路径
+     * @return 生效的规则，没有规则时返回 {@link RouteRule#NONE}
+     */
+    public RouteRule resolve(String path) {
+        RouteRule rule = exact.get(path);
+        if (rule != null) {
+            return rule;
+        }
+
+        Node node = root;
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                Node child = node.children.get(path.substring(start, end));
+                if (child == null) {
+                    // 走出前缀树，只有通配规则生效
+                    return node.prefixRule;
+                }
+                node = child;
+            }
+            start = end + 1;
+        }
+        return node.exactRule;
+    }
+
+    /**
+     * 已声明的规则数
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        // 以 /** 声明在本节点上的规则
+        private RouteRule wildcardRule = RouteRule.NONE;
+
+        // 以完整路径声明在本节点上的规则
+        private RouteRule declaredRule = RouteRule.NONE;
+
+        // 编译结果：经过本节点继续向下、但后续路径不在前缀树中时生效的规则
+        private RouteRule prefixRule = RouteRule.NONE;
+
+        // 编译结果：请求路径恰好结束在本节点时生效的规则
+        private RouteRule exactRule = RouteRule.NONE;
+    }
+
+    /**
+     * 鉴权表构建器
+     */
+    public static final class Builder {
+
+        private final Node root = new Node();
+
+        // 保留声明顺序，用于生成完全匹配表
+        private final Map<String, List<String>> exactPaths = new LinkedHashMap<>();
+
+        private int ruleCount;
+
+        private Builder() {
+        }
+
+        /**
+         * 声明需要登录的路由
+         */
+        public Builder login(String... patterns) {
+            for (String pattern : patterns) {
+                add(pattern, RouteRule.LOGIN);
+            }
+            return this;
+        }
+
+        /**
+         * 声明需要登录并具备指定角色的路由
+         */
+        public Builder role(String role, String... patterns) {
+            RouteRule rule = RouteRule.role(role);
+            for (String pattern : patterns) {
+                add(pattern, rule);
+            }
+            return this;
+        }
+
+        /**
+         * 声明路由规则
+         *
+         * @param pattern 完整路径或以 /** 结尾的前缀
+         * @param rule 规则
+         */
+        public Builder add(String pattern, RouteRule rule) {
+            List<String> segments = split(pattern);
+            boolean wildcard = !segments.isEmpty() && segments.get(segments.size() - 1).equals(WILDCARD);
+            if (wildcard) {
+                segments = segments.subList(0, segments.size() - 1);
+            }
+            Node node = root;
+            for (String segment : segments) {
+                if (segment.contains("*") || segment.contains("{")) {
+                    throw new IllegalArgumentException("只支持完整路径或以 /** 结尾的路由：" + pattern);
+                }
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            if (wildcard) {
+                node.wildcardRule = node.wildcardRule.merge(rule);
+            } else {
+                node.declaredRule = node.declaredRule.merge(rule);
+                exactPaths.put("/" + String.join("/", segments), segments);
+            }
+            ruleCount++;
+            return this;
+        }
+
+        public RouteRuleTable build() {
+            compile(root, RouteRule.NONE);
+            Map<String, RouteRule> exact = new HashMap<>();
+            exactPaths.forEach((path, segments) -> {
+                Node node = root;
+                for (String segment : segments) {
+                    node = node.children.get(segment);
+                }
+                exact.put(path, node.exactRule);
+            });
+            return new RouteRuleTable(root, Map.copyOf(exact), ruleCount);
+        }
+
+        /**
+         * 自顶向下计算每个节点最终生效的规则
+         *
+         * @param inherited 祖先节点的通配规则合并结果
+         */
+        private static void compile(Node node, RouteRule inherited) {
+            node.prefixRule = inherited.merge(node.wildcardRule);
+            node.exactRule = node.prefixRule.merge(node.declaredRule);
+            for (Node child : node.children.values()) {
+                compile(child, node.prefixRule);
+            }
+        }
+
+        private static List<String> split(String pattern) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : pattern.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments;
+        }
+    }
+}
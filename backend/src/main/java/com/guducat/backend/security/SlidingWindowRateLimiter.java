@@ -0,0 +1,190 @@
+package com.guducat.backend.security;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 固定内存的近似滑动窗口限流器。
+ * <p>
+ * 不为每个键保存计数：键哈希到两行计数槽（类似 Count-Min Sketch），每行取一个槽，以两个槽中较小的计数作为该键的估计值。
+ * 不同的键落到同一个槽只会使估计值偏大，两行同时冲突的概率很低。内存占用固定为 2 × slots 个 long，与键的数量无关。
+ * </p>
+ * <p>
+ * 每个槽是一个 long，打包存放窗口编号（24 位）、上一窗口计数与当前窗口计数（各 20 位），以 CAS 更新，不加锁也不分配对象。
+ * 滑动窗口按经典近似计算：估计值 = 上一窗口计数 × 上一窗口仍在滑动窗口内的比例 + 当前窗口计数。
+ * 被拒绝的请求不计数，因此持续超限的客户端在每个窗口内仍只能成功 limit 次。
+ * </p>
+ */
+public class SlidingWindowRateLimiter {
+
+    // 计数上限，超过后不再增加
+    static final int MAX_COUNT = (1 << 20) - 1;
+
+    private static final int COUNT_BITS = 20;
+
+    private static final long COUNT_MASK = MAX_COUNT;
+
+    private static final long WINDOW_MASK = (1L << 24) - 1;
+
+    // 计算滑动比例的定点精度
+    private static final int FRACTION_BITS = 10;
+
+    private final AtomicLongArray slots;
+
+    private final int slotMask;
+
+    private final int limit;
+
+    private final long windowNanos;
+
+    private final long origin;
+
+    // 每个实例随机的哈希种子，外部无法预先构造落在同一组槽上的键
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    private final LongSupplier clock;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param limit 滑动窗口内每个键允许的请求数，不能超过 {@link #MAX_COUNT}
+     * @param window 窗口长度
+     * @param slots 每行的槽数，向上取整为 2 的幂
+     */
+    public SlidingWindowRateLimiter(int limit, Duration window, int slots) {
+        this(limit, window, slots, System::nanoTime);
+    }
+
+    /**
+     * @param clock 纳秒时钟，测试时可替换为可控时钟
+     */
+    public SlidingWindowRateLimiter(int limit, Duration window, int slots, LongSupplier clock) {
+        if (limit <= 0 || limit > MAX_COUNT) {
+            throw new IllegalArgumentException("limit 超出范围：" + limit);
+        }
+        int size = Integer.highestOneBit(Math.max(slots, 2) - 1) << 1;
+        this.slots = new AtomicLongArray(size * 2);
+        this.slotMask = size - 1;
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * 为键记录一次请求
+     *
+     * @param key 限流键，如账号或 IP；忽略首尾空白，不区分大小写
+     * @return 未超过限制时返回 true 并计数；超过时返回 false，不计数
+     */
+    public boolean tryAcquire(CharSequence key) {
+        long hash = hash(key);
+        int first = (int) hash & slotMask;
+        int second = slotMask + 1 + ((int) (hash >>> 32) & slotMask);
+
+        long elapsed = clock.getAsLong() - origin;
+        long window = elapsed / windowNanos;
+        // 上一窗口仍在滑动窗口内的比例，定点数
+        long weight = ((windowNanos - elapsed % windowNanos) << FRACTION_BITS) / windowNanos;
+
+        if (Math.min(estimate(first, window, weight), estimate(second, window, weight)) >= limit) {
+            rejectedCount.increment();
+            return false;
+        }
+        increment(first, window);
+        increment(second, window);
+        return true;
+    }
+
+    private long estimate(int index, long window, long weight) {
+        long slot = slots.get(index);
+        long slotWindow = slot >>> (COUNT_BITS * 2);
+        long current = window & WINDOW_MASK;
+        if (slotWindow == current) {
+            return ((previousCount(slot) * weight) >>> FRACTION_BITS) + currentCount(slot);
+        }
+        if (slotWindow == ((window - 1) & WINDOW_MASK)) {
+            return (currentCount(slot) * weight) >>> FRACTION_BITS;
+        }
+        return 0;
+    }
+
+    private void increment(int index, long window) {
+        long current = window & WINDOW_MASK;
+        while (true) {
+            long slot = slots.get(index);
+            long slotWindow = slot >>> (COUNT_BITS * 2);
+            long previous;
+            long count;
+            if (slotWindow == current) {
+                previous = previousCount(slot);
+                count = Math.min(currentCount(slot) + 1, MAX_COUNT);
+            } else if (slotWindow == ((window - 1) & WINDOW_MASK)) {
+                previous = currentCount(slot);
+                count = 1;
+            } else {
+                previous = 0;
+                count = 1;
+            }
+            long updated = (current << (COUNT_BITS * 2)) | (previous << COUNT_BITS) | count;
+            if (updated == slot || slots.compareAndSet(index, slot, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前窗口剩余的秒数，至少为 1，用作 Retry-After
+     */
+    public long getRetryAfterSeconds() {
+        long remaining = windowNanos - (clock.getAsLong() - origin) % windowNanos;
+        return Math.max(1, (remaining + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * 累计拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private static long previousCount(long slot) {
+        return (slot >>> COUNT_BITS) & COUNT_MASK;
+    }
+
+    private static long currentCount(long slot) {
+        return slot & COUNT_MASK;
+    }
+
+    /**
+     * 带种子的 64 位哈希，逐字符计算，忽略首尾空白并转为小写
+     */
+    private long hash(CharSequence key) {
+        int start = 0;
+        int end = key.length();
+        while (start < end && Character.isWhitespace(key.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(key.charAt(end - 1))) {
+            end--;
+        }
+        long h = seed;
+        for (int i = start; i < end; i++) {
+            h = (h ^ Character.toLowerCase(key.charAt(i))) * 0x9E3779B97F4A7C15L;
+        }
+        // MurmurHash3 的 fmix64
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
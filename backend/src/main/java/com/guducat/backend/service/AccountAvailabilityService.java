@@ -0,0 +1,294 @@
+package com.guducat.backend.service;
+
+import com.guducat.backend.cache.BloomFilter;
+import com.guducat.backend.entity.AccountKey;
+import com.guducat.backend.mapper.UserMapper;
+import com.guducat.backend.util.AccountUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 用户名、邮箱可用性检查。
+ * <p>
+ * 启动完成后分批扫描用户表，把所有用户名和邮箱写入内存中的布隆过滤器。检查时过滤器判定"一定不存在"
+ * 即直接返回可用，只有可能命中时才查询数据库确认，注册页逐字输入的检查基本不会落到数据库。
+ * </p>
+ * <p>
+ * 注册、修改邮箱时同步写入过滤器。布隆过滤器不支持删除，删除用户或更换邮箱后旧值仍会命中，
+ * 只是多一次数据库确认；由 MaintenanceConfig 注册的后台任务在有删除或过滤器构建超过 maxAge 时重建过滤器。
+ * 过滤器尚未构建完成时所有检查都查询数据库。
+ * </p>
+ * <p>
+ * 多节点部署时通过 {@link #enableBroadcast} 把新增的账号广播到所有节点，各节点收到后写入本地过滤器，
+ * 否则其他节点注册的账号会一直被判为可用。订阅断开期间错过的广播由按 maxAge 的定期重建补上。
+ * </p>
+ * <p>
+ * 数据库按 utf8mb4_unicode_ci 比较用户名，{@code Alice}、{@code alice} 与 {@code alice } 视为同一个，
+ * 因此用户名按 {@link AccountUtils#foldUsername} 折叠后写入和查询，保证过滤器不会把已占用的大小写变体判为可用。
+ * </p>
+ */
+@Slf4j
+@Service
+public class AccountAvailabilityService {
+
+    private static final String USERNAME_PREFIX = "u:";
+
+    private static final String EMAIL_PREFIX = "e:";
+
+    private static final String MESSAGE_PREFIX = "account:";
+
+    // 每批扫描的行数
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final UserMapper userMapper;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    private final long maxAgeNanos;
+
+    // 向所有节点广播新增账号，为 null 时不广播
+    private volatile Consumer<String> publisher;
+
+    // 当前过滤器开始构建的时刻（System.nanoTime）
+    private volatile long builtAt;
+
+    // 当前使用的过滤器，构建完成前为 null
+    private volatile BloomFilter filter;
+
+    // 重建过程中的新过滤器，期间的新增同时写入新旧两个过滤器
+    private volatile BloomFilter rebuilding;
+
+    // 当前过滤器的容量（元素数）
+    private volatile long capacity;
+
+    // 上次构建以来被删除或替换的账号数
+    private final AtomicLong removedSinceBuild = new AtomicLong();
+
+    private final LongAdder filterRejectCount = new LongAdder();
+
+    private final LongAdder databaseCheckCount = new LongAdder();
+
+    /**
+     * @param expectedInsertions 过滤器最小容量（元素数），实际容量取该值与当前账号数四倍（每个账号两个元素，预留一倍余量）中的较大者
+     * @param falsePositiveRate 目标误判率
+     * @param maxAgeMinutes 过滤器构建后超过该时间（分钟）即重建，为 0 时不按时间重建
+     */
+    public AccountAvailabilityService(UserMapper userMapper,
+                                      @Value("${app.account-filter.expected-insertions:1000000}") long expectedInsertions,
+                                      @Value("${app.account-filter.fpp:0.01}") double falsePositiveRate,
+                                      @Value("${app.account-filter.max-age-minutes:1440}") long maxAgeMinutes) {
+        this.userMapper = userMapper;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxAgeNanos = TimeUnit.MINUTES.toNanos(maxAgeMinutes);
+    }
+
+    /**
+     * 用户名是否可用（未被注册）
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (!mightContain(USERNAME_PREFIX + AccountUtils.foldUsername(username))) {
+            return true;
+        }
+        databaseCheckCount.increment();
+        return userMapper.checkUsernameExists(username) == 0;
+    }
+
+    /**
+     * 邮箱是否可用（未被使用），按规范化后的邮箱判断
+     */
+    public boolean isEmailAvailable(String email) {
+        email = AccountUtils.normalizeEmail(email);
+        if (email == null) {
+            return true;
+        }
+        if (!mightContain(EMAIL_PREFIX + email)) {
+            return true;
+        }
+        databaseCheckCount.increment();
+        return userMapper.checkEmailExists(email) == 0;
+    }
+
+    /**
+     * 记录新注册的账号
+     *
+     * @param username 用户名
+     * @param email 规范化后的邮箱，可为 null
+     */
+    public void recordAccount(String username, String email) {
+        add(USERNAME_PREFIX + AccountUtils.foldUsername(username));
+        if (email != null) {
+            add(EMAIL_PREFIX + email);
+        }
+    }
+
+    /**
+     * 记录用户更换后的邮箱，旧邮箱视为已删除
+     *
+     * @param email 规范化后的新邮箱
+     */
+    public void recordEmailChange(String email) {
+        add(EMAIL_PREFIX + email);
+        removedSinceBuild.incrementAndGet();
+    }
+
+    /**
+     * 记录账号被删除，对应条目在下次重建时清除
+     */
+    public void recordRemoval() {
+        removedSinceBuild.incrementAndGet();
+    }
+
+    /**
+     * 开启多节点广播：之后记录的新增账号通过 publisher 发布，所有节点收到后应调用 {@link #onMessage}
+     */
+    public void enableBroadcast(Consumer<String> publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * 处理其他节点（包括本节点）广播的新增账号，不是账号消息时忽略
+     */
+    public void onMessage(String message) {
+        if (!message.startsWith(MESSAGE_PREFIX)) {
+            return;
+        }
+        String key = message.substring(MESSAGE_PREFIX.length());
+        // 本节点发布的消息也会收到：已写入的元素不再重复计数，避免元素数虚高而提前重建
+        BloomFilter next = rebuilding;
+        BloomFilter current = filter;
+        if (next != null && !next.mightContain(key)) {
+            next.put(key);
+        }
+        if (current != null && current != next && !current.mightContain(key)) {
+            current.put(key);
+        }
+    }
+
+    /**
+     * 启动完成后构建过滤器，失败时保持未就绪，由后台任务重试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("账号过滤器构建失败，可用性检查将直接查询数据库", e);
+        }
+    }
+
+    /**
+     * 过滤器未构建、有删除、实际元素数超出容量或构建超过 maxAge 时重建
+     */
+    public void rebuildIfStale() {
+        BloomFilter current = filter;
+        if (current == null || removedSinceBuild.get() > 0 || current.getInsertCount() > capacity
+                || (maxAgeNanos > 0 && System.nanoTime() - builtAt >= maxAgeNanos)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 分批扫描用户表重建过滤器，完成后整体替换
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        long accountCount = userMapper.selectCount(null);
+        long nextCapacity = Math.max(expectedInsertions, accountCount * 4);
+        BloomFilter next = new BloomFilter(nextCapacity, falsePositiveRate);
+        // 先清零再扫描，扫描期间的删除会在下次重建时处理
+        removedSinceBuild.set(0);
+        long buildStart = System.nanoTime();
+        rebuilding = next;
+        try {
+            long afterId = 0;
+            List<AccountKey> batch;
+            do {
+                batch = userMapper.scanAccountKeys(afterId, SCAN_BATCH_SIZE);
+                for (AccountKey key : batch) {
+                    next.put(USERNAME_PREFIX + AccountUtils.foldUsername(key.username()));
+                    if (key.email() != null) {
+                        next.put(EMAIL_PREFIX + key.email());
+                    }
+                    afterId = key.id();
+                }
+            } while (batch.size() == SCAN_BATCH_SIZE);
+            capacity = nextCapacity;
+            builtAt = buildStart;
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+        log.info("账号过滤器已构建：元素数={}，位数={}，耗时 {} ms", next.getInsertCount(), next.getBitSize(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 过滤器是否已构建完成
+     */
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    /**
+     * 由过滤器直接判定可用、未查询数据库的次数
+     */
+    public long getFilterRejectCount() {
+        return filterRejectCount.sum();
+    }
+
+    /**
+     * 查询数据库确认的次数
+     */
+    public long getDatabaseCheckCount() {
+        return databaseCheckCount.sum();
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(key)) {
+            return true;
+        }
+        filterRejectCount.increment();
+        return false;
+    }
+
+    /**
+     * 写入本地过滤器，开启广播时同时发布到所有节点
+     */
+    private void add(String key) {
+        put(key);
+        Consumer<String> current = publisher;
+        if (current != null) {
+            try {
+                current.accept(MESSAGE_PREFIX + key);
+            } catch (RuntimeException e) {
+                log.warn("广播新增账号失败，其他节点将在过滤器重建后更新：{}", key, e);
+            }
+        }
+    }
+
+    private void put(String key) {
+        // 先读 rebuilding 再读 filter：rebuilding 为 null 时，要么重建尚未开始（扫描能看到已提交的新账号），
+        // 要么已经结束（此时 filter 已是新过滤器）
+        BloomFilter next = rebuilding;
+        BloomFilter current = filter;
+        if (next != null) {
+            next.put(key);
+        }
+        if (current != null && current != next) {
+            current.put(key);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.guducat.backend.service;
+
+/**
+ * 批量操作请求不合法时抛出，例如未指定用户或新角色无效；消息可直接返回给客户端
+ */
+public class InvalidBulkRequestException extends RuntimeException {
+
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
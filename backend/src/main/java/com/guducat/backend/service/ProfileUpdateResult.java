@@ -0,0 +1,27 @@
+package com.guducat.backend.service;
+
+/**
+ * 用户资料更新结果
+ */
+public enum ProfileUpdateResult {
+
+    /**
+     * 更新成功
+     */
+    UPDATED,
+
+    /**
+     * 用户不存在
+     */
+    NOT_FOUND,
+
+    /**
+     * 版本号不一致，资料已被其他请求修改
+     */
+    VERSION_CONFLICT,
+
+    /**
+     * 邮箱已被其他用户使用
+     */
+    EMAIL_TAKEN
+}
@@ -0,0 +1,105 @@
+package com.guducat.backend.service;
+
+import cn.dev33.satoken.context.SaHolder;
+import cn.dev33.satoken.context.SaTokenContext;
+import com.guducat.backend.entity.UserProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 请求级用户上下文。
+ * <p>
+ * 在一次请求内缓存已加载的 {@link UserProfile}，让拦截器的角色校验、{@code @SaCheckRole} 注解校验、
+ * {@code StpInterfaceImpl} 与控制器共享同一份查询结果，保证同一请求对同一用户最多查询一次数据库。
+ * 数据保存在 Sa-Token 的请求级存储（{@link SaHolder#getStorage()}）中，随请求结束而释放。
+ * </p>
+ * <p>
+ * 不在 Web 请求上下文中调用时（如定时任务），不做缓存，每次都直接调用加载函数。
+ * </p>
+ */
+public final class RequestUserContext {
+
+    private static final String STORAGE_KEY = RequestUserContext.class.getName();
+
+    private RequestUserContext() {
+    }
+
+    /**
+     * 获取用户资料，同一请求内重复获取同一用户时直接返回已加载的结果
+     *
+     * @param userId 用户ID
+     * @param loader 未命中时的加载函数（通常是一次数据库查询）
+     * @return 用户资料，如果不存在则返回null
+     */
+    public static UserProfile getProfile(Long userId, Function<Long, UserProfile> loader) {
+        Holder holder = currentHolder();
+        if (holder == null) {
+            return loader.apply(userId);
+        }
+        if (holder.users.containsKey(userId)) {
+            return holder.users.get(userId);
+        }
+        UserProfile profile = loader.apply(userId);
+        holder.loadCount++;
+        holder.users.put(userId, profile);
+        return profile;
+    }
+
+    /**
+     * 只读取当前请求中已加载的用户资料，不触发加载
+     *
+     * @param userId 用户ID
+     * @return 已加载的用户资料，未加载、不存在或不在请求上下文中时返回null
+     */
+    public static UserProfile peek(Long userId) {
+        Holder holder = currentHolder();
+        return holder == null ? null : holder.users.get(userId);
+    }
+
+    /**
+     * 移除当前请求中缓存的用户，用户信息被修改或删除后调用
+     *
+     * @param userId 用户ID
+     */
+    public static void evict(Long userId) {
+        Holder holder = currentHolder();
+        if (holder != null) {
+            holder.users.remove(userId);
+        }
+    }
+
+    /**
+     * 当前请求内实际查询数据库加载用户的次数
+     *
+     * @return 加载次数，不在请求上下文中时返回0
+     */
+    public static int getLoadCount() {
+        Holder holder = currentHolder();
+        return holder == null ? 0 : holder.loadCount;
+    }
+
+    private static Holder currentHolder() {
+        SaTokenContext context = SaHolder.getContext();
+        if (context == null || !context.isValid()) {
+            return null;
+        }
+        Holder holder = (Holder) context.getStorage().get(STORAGE_KEY);
+        if (holder == null) {
+            holder = new Holder();
+            context.getStorage().set(STORAGE_KEY, holder);
+        }
+        return holder;
+    }
+
+    /**
+     * 单个请求内的缓存数据，请求由单线程处理，无需同步
+     */
+    private static final class Holder {
+
+        private final Map<Long, UserProfile> users = new HashMap<>();
+
+        private int loadCount;
+    }
+}
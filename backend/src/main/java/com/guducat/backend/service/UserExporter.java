@@ -0,0 +1,200 @@
+package com.guducat.backend.service;
+
+import com.baomidou.dynamic.datasource.annotation.DS;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.entity.UserSummary;
+import com.guducat.backend.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户数据导出。
+ * <p>
+ * 通过 MyBatis {@link Cursor} 逐行读取用户表并直接写入输出流，写入使用固定大小的缓冲区，
+ * 每隔固定行数刷新一次。内存占用与用户总数无关，导出结果不包含密码列。
+ * </p>
+ */
+@Slf4j
+@Service
+public class UserExporter {
+
+    // 写缓冲区大小（字符）
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    // 每写入多少行刷新一次输出流，让客户端尽早收到数据
+    private static final int FLUSH_EVERY_ROWS = 5000;
+
+    private static final String CSV_HEADER = "id,username,nickname,email,role";
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * 按名称解析格式，不区分大小写，不支持时返回 null
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 导出全部用户到输出流，结束时输出导出行数与吞吐量
+     *
+     * @param format 导出格式
+     * @param out 输出流，由调用方负责关闭
+     * @return 导出的行数
+     */
+    @DS(ReadYourWrites.REPLICA)
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Cursor<UserSummary> cursor = userMapper.streamUserSummaries()) {
+            RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+            for (UserSummary row : cursor) {
+                rowWriter.write(row);
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("用户导出完成：格式={}，行数={}，耗时 {} ms，{} 行/秒", format, rows, elapsedMillis, rows * 1000 / elapsedMillis);
+        return rows;
+    }
+
+    private interface RowWriter {
+
+        void write(UserSummary row) throws IOException;
+    }
+
+    /**
+     * 每行一个 JSON 对象，复用同一个 JsonGenerator，只在外层按行数刷新
+     */
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private final ObjectWriter rowWriter;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.generator.setRootValueSeparator(null);
+            this.rowWriter = objectMapper.writerFor(UserSummary.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(UserSummary row) throws IOException {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+            // 把生成器内部缓冲写入外层 Writer，不会刷新到输出流
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 格式，首行为表头。
+     * <p>
+     * 以 {@code = + - @}、制表符或回车开头的字段前加单引号，防止用户填写的昵称等在电子表格中被当作公式执行（CSV 注入）。
+     * </p>
+     */
+    private static class CsvRowWriter implements RowWriter {
+
+        // 电子表格会当作公式解析的首字符
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(UserSummary row) throws IOException {
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writeField(row.username());
+            writer.write(',');
+            writeField(row.nickname());
+            writer.write(',');
+            writeField(row.email());
+            writer.write(',');
+            writeField(row.role());
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
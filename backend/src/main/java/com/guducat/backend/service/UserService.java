@@ -1,38 +1,99 @@
 package com.guducat.backend.service;
 
-import cn.dev33.satoken.secure.SaSecureUtil;
 import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.audit.AuditLog;
+import com.baomidou.dynamic.datasource.annotation.DS;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.entity.AccountKey;
+import com.guducat.backend.entity.BulkOperationResult;
+import com.guducat.backend.entity.BulkUserRequest;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.LoginAccount;
 import com.guducat.backend.entity.User;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
 import com.guducat.backend.mapper.UserMapper;
+import com.guducat.backend.metrics.AuthMetrics;
+import com.guducat.backend.metrics.RequestTiming;
+import com.guducat.backend.security.PasswordHashingBusyException;
+import com.guducat.backend.security.PasswordHashingService;
+import com.guducat.backend.security.ResetTokenStore;
+import com.guducat.backend.util.AccountUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 public class UserService extends ServiceImpl<UserMapper, User> {
 
-    // 存储重置密码令牌的映射，格式：<用户ID, 令牌>
-    private final Map<Long, String> resetTokens = new ConcurrentHashMap<>();
+    // 用户列表每页默认条数
+    public static final int DEFAULT_PAGE_SIZE = 20;
 
-    // 令牌过期时间（毫秒）
-    private static final long TOKEN_EXPIRATION = 30 * 60 * 1000; // 30分钟
+    // 用户列表每页最大条数
+    public static final int MAX_PAGE_SIZE = 100;
 
-    // 定时清理过期令牌
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // 批量操作每个分块（事务）处理的用户数
+    public static final int BULK_CHUNK_SIZE = 500;
 
-    // 存储令牌创建时间的映射，格式：<用户ID, 创建时间>
-    private final Map<Long, Long> tokenCreationTimes = new ConcurrentHashMap<>();
+    // 可分配的角色，与 StpInterfaceImpl 的角色映射一致
+    private static final List<String> ROLES = List.of("user", "admin");
 
-    public UserService() {
-        // 启动定时任务，每10分钟清理一次过期令牌
-        scheduler.scheduleAtFixedRate(this::cleanExpiredTokens, 10, 10, TimeUnit.MINUTES);
-    }
+    // 角色缓存，格式：<用户ID, 角色标识>
+    @Autowired
+    private LocalCache<Long, String> roleCache;
+
+    // 用户资料缓存，格式：<用户ID, 用户资料>，所有修改用户的路径都需要使其失效
+    @Autowired
+    private LocalCache<Long, UserProfile> profileCache;
+
+    // 不存在账号的负缓存，格式：<账号, TRUE>
+    @Autowired
+    private LocalCache<String, Boolean> unknownAccountCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // 用户名、邮箱可用性过滤器，注册、改邮箱、删除时同步更新
+    @Autowired
+    private AccountAvailabilityService accountAvailabilityService;
+
+    // 重置密码令牌存储，过期令牌由 MaintenanceConfig 注册的后台任务定期清理
+    @Autowired
+    private ResetTokenStore resetTokenStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Spring Boot 默认的应用线程池，执行重新哈希后的写库，避免数据库 I/O 占用哈希线程
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    // 登录、注册、重置密码、删除等操作的耗时与结果统计
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 读写分离：写入后短时间内相关读取走主库
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    // 认证审计日志，异步批量写入 login_audit 表
+    @Autowired
+    private AuditLog auditLog;
 
     /**
      * 用户登录
@@ -42,48 +103,101 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 登录是否成功
      */
     public boolean login(String account, String password) {
-        User user;
+        Long userId = authMetrics.record(AuthMetrics.LOGIN, () -> authenticate(account, password), Objects::nonNull);
+        auditLog.record(AuthMetrics.LOGIN, userId != null, userId, account);
+        return userId != null;
+    }
+
+    /**
+     * @return 登录成功时返回用户ID，否则返回null
+     */
+    private Long authenticate(String account, String password) {
+        if (account == null || password == null) {
+            return null;
+        }
 
-        // 先尝试使用用户名查询
-        user = this.baseMapper.findByUsername(account);
+        // 账号包含 @ 时同时按规范化后的邮箱匹配
+        String email = AccountUtils.isEmail(account) ? AccountUtils.normalizeEmail(account) : null;
 
-        // 如果用户名查询不到，尝试使用邮箱查询
-        if (user == null && account.contains("@")) {
-            user = this.baseMapper.findByEmail(account);
+        // 近期确认过不存在的账号，不再查询数据库；仍执行一次占位哈希，耗时与存在的账号相同
+        if (unknownAccountCache.get(account) != null) {
+            passwordHashingService.matchesDummy(password);
+            return null;
         }
 
-        if (user != null && user.getPassword().equals(SaSecureUtil.sha256(password))) {
-            // 登录
-            StpUtil.login(user.getId());
-            return true;
+        // 查询之前取失效戳：查询到写入角色缓存之间角色被修改时，不写入查到的旧角色
+        long roleStamp = roleCache.invalidationStamp();
+        // 一次查询同时匹配用户名或邮箱
+        LoginAccount loginAccount = this.baseMapper.findLoginAccount(account, email);
+        if (loginAccount == null) {
+            // 只缓存规范写法的账号：键即提交的账号，注册时按规范写法清除即可覆盖数据库比较时视为相同的写法；
+            // 带空白、大写等其他写法每次都查询数据库，不能借此把真实账号写入负缓存
+            if (account.equals(email != null ? email : AccountUtils.foldUsername(account))) {
+                unknownAccountCache.put(account, Boolean.TRUE);
+            }
+            passwordHashingService.matchesDummy(password);
+            return null;
+        }
+
+        if (passwordHashingService.matches(password, loginAccount.passwordHash())) {
+            // 登录，并顺带预热角色缓存；token 创建与会话写入计入 Server-Timing 的 auth 阶段
+            RequestTiming timing = RequestTiming.current();
+            long start = System.nanoTime();
+            StpUtil.login(loginAccount.id());
+            if (timing != null) {
+                timing.add(RequestTiming.Phase.AUTH, System.nanoTime() - start);
+            }
+            if (loginAccount.role() != null) {
+                roleCache.putIfNotInvalidatedSince(loginAccount.id(), loginAccount.role(), roleStamp);
+            }
+            // 旧格式或强度不足的哈希，在后台重新计算
+            if (passwordHashingService.needsRehash(loginAccount.passwordHash())) {
+                rehashPassword(loginAccount, password);
+            }
+            return loginAccount.id();
+        }
+        return null;
+    }
+
+    /**
+     * 登录成功后在哈希线程池中重新计算密码哈希，再由应用线程池写回，失败时等待下次登录再试
+     */
+    private void rehashPassword(LoginAccount loginAccount, String password) {
+        try {
+            passwordHashingService.hashAsync(password)
+                    .thenAcceptAsync(newHash -> this.baseMapper.replacePasswordHash(loginAccount.id(), loginAccount.passwordHash(), newHash),
+                            taskExecutor)
+                    .exceptionally(e -> {
+                        log.warn("用户 {} 密码重新哈希失败", loginAccount.id(), e);
+                        return null;
+                    });
+        } catch (PasswordHashingBusyException e) {
+            log.debug("哈希线程池繁忙，跳过用户 {} 的密码重新哈希", loginAccount.id());
         }
-        return false;
     }
 
     /**
      * 用户注册
+     * <p>
+     * 只执行一次 INSERT，用户名和邮箱的唯一性由数据库唯一索引（uk_username、uk_email）保证，
+     * 并发注册同一账号时只有一个能成功。
+     * </p>
      *
      * @param username 用户名
      * @param nickname 昵称
      * @param email 邮箱
      * @param avatarUrl 头像URL
      * @param password 密码
-     * @return 注册是否成功
+     * @return 新用户ID，用户名或邮箱已存在时返回null
      */
-    public boolean register(String username, String nickname, String email, String avatarUrl, String password) {
-        // 检查用户名是否已存在
-        User existingUser = this.baseMapper.findByUsername(username);
-        if (existingUser != null) {
-            return false;
-        }
+    public Long register(String username, String nickname, String email, String avatarUrl, String password) {
+        Long userId = authMetrics.record(AuthMetrics.REGISTER,
+                () -> createUser(username, nickname, AccountUtils.normalizeEmail(email), avatarUrl, password), Objects::nonNull);
+        auditLog.record(AuthMetrics.REGISTER, userId != null, userId, username);
+        return userId;
+    }
 
-        // 检查邮箱是否已存在
-        if (email != null && !email.isEmpty()) {
-            int emailCount = this.baseMapper.checkEmailExists(email);
-            if (emailCount > 0) {
-                return false;
-            }
-        }
+    private Long createUser(String username, String nickname, String email, String avatarUrl, String password) {
 
         // 创建新用户
         User user = new User();
@@ -91,33 +205,106 @@ public class UserService extends ServiceImpl<UserMapper, User> {
         user.setNickname(nickname);
         user.setEmail(email);
         user.setAvatarUrl(avatarUrl);
-        // 使用相同的密码加密方式
-        user.setPassword(SaSecureUtil.sha256(password));
+        // 加盐哈希
+        user.setPassword(passwordHashingService.hash(password));
         // 设置默认角色
         user.setRole("user");
 
-        // 保存用户并返回结果
-        return save(user);
+        // 保存用户，唯一索引冲突说明用户名或邮箱已存在
+        try {
+            if (!save(user)) {
+                return null;
+            }
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+
+        // 新账号可能在负缓存中，清除以便立即登录（多节点时广播到所有节点）
+        unknownAccountCache.invalidate(AccountUtils.foldUsername(username));
+        if (email != null) {
+            unknownAccountCache.invalidate(email);
+        }
+        roleCache.put(user.getId(), user.getRole());
+        accountAvailabilityService.recordAccount(username, email);
+        readYourWrites.recordWrite(user.getId());
+        return user.getId();
+    }
+
+    /**
+     * 根据ID获取用户资料（不包含密码）
+     * <p>
+     * 优先读取用户资料缓存，并发未命中时只查询一次数据库；同一请求内重复获取同一用户时直接复用，
+     * 见 {@link RequestUserContext}。
+     * </p>
+     *
+     * @param id 用户ID
+     * @return 用户资料，如果不存在则返回null
+     */
+    @DS(ReadYourWrites.REPLICA)
+    public UserProfile getUserProfile(Long id) {
+        return RequestUserContext.getProfile(id, userId -> profileCache.get(userId, this.baseMapper::findProfileById));
     }
 
     /**
-     * 根据ID获取用户信息
+     * 获取用户角色，优先读取角色缓存
+     * <p>
+     * 未命中时，若当前请求已加载过该用户的资料则直接取其角色，否则只查询角色一列。
+     * </p>
      *
      * @param id 用户ID
-     * @return 用户对象，如果不存在则返回null
+     * @return 角色标识，如果用户不存在则返回null
      */
-    public User getUserById(Long id) {
-        return getById(id);
+    @DS(ReadYourWrites.REPLICA)
+    public String getUserRole(Long id) {
+        return roleCache.get(id, userId -> {
+            UserProfile profile = RequestUserContext.peek(userId);
+            return profile != null ? profile.role() : this.baseMapper.findRoleById(userId);
+        });
     }
 
     /**
-     * 根据用户名获取用户信息
+     * 根据用户名获取账号标识（id、用户名、邮箱）
      *
      * @param username 用户名
-     * @return 用户对象，如果不存在则返回null
+     * @return 账号标识，如果不存在则返回null
      */
-    public User getUserByUsername(String username) {
-        return this.baseMapper.findByUsername(username);
+    @DS(ReadYourWrites.REPLICA)
+    public AccountKey getAccountByUsername(String username) {
+        return this.baseMapper.findAccountKeyByUsername(username);
+    }
+
+    /**
+     * 按 id 游标分页查询用户列表（管理员操作）
+     * <p>
+     * 每次只读取一页，多取一条用于判断是否还有下一页；返回的行不包含密码。
+     * </p>
+     *
+     * @param after 上一页的游标，为null时从头开始
+     * @param limit 每页条数，超出范围时取默认值或上限
+     * @param role 角色过滤（选填）
+     * @param usernamePrefix 用户名前缀过滤（选填）
+     * @return 分页结果
+     */
+    @DS(ReadYourWrites.REPLICA)
+    public CursorPage<UserSummary> listUsers(Long after, Integer limit, String role, String usernamePrefix) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        String prefix = usernamePrefix == null || usernamePrefix.isEmpty() ? null : escapeLike(usernamePrefix);
+        String roleFilter = role == null || role.isEmpty() ? null : role;
+
+        List<UserSummary> rows = this.baseMapper.listUserSummaries(after == null ? 0 : after, pageSize + 1, roleFilter, prefix);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        Long nextAfter = hasMore ? rows.get(rows.size() - 1).id() : null;
+        return new CursorPage<>(rows, nextAfter, hasMore);
+    }
+
+    /**
+     * 转义 LIKE 通配符，转义字符为 !
+     */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     /**
@@ -130,35 +317,50 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 更新是否成功
      */
     public boolean updateUserInfo(Long id, String nickname, String email, String avatarUrl) {
-        // 获取当前用户
-        User user = getById(id);
-        if (user == null) {
-            return false;
-        }
+        return updateUserInfo(id, nickname, email, avatarUrl, null) == ProfileUpdateResult.UPDATED;
+    }
 
-        // 检查邮箱是否已被其他用户使用
-        if (email != null && !email.isEmpty() && !email.equals(user.getEmail())) {
-            int emailCount = this.baseMapper.checkEmailExists(email);
-            if (emailCount > 0) {
-                return false;
-            }
+    /**
+     * 更新用户信息
+     * <p>
+     * 只写入传入的字段，一条 UPDATE 完成。version 不为 null 时作为乐观锁条件，
+     * 资料在读取后已被修改则返回 {@link ProfileUpdateResult#VERSION_CONFLICT}；
+     * 邮箱唯一性由数据库唯一索引保证，冲突时返回 {@link ProfileUpdateResult#EMAIL_TAKEN}。
+     * </p>
+     *
+     * @param id 用户ID
+     * @param nickname 昵称，为空时不修改
+     * @param email 邮箱，为空时不修改
+     * @param avatarUrl 头像URL，为null时不修改
+     * @param version 读取资料时的版本号，为null时不校验
+     * @return 更新结果
+     */
+    public ProfileUpdateResult updateUserInfo(Long id, String nickname, String email, String avatarUrl, Integer version) {
+        email = AccountUtils.normalizeEmail(email);
+        if (nickname != null && nickname.isEmpty()) {
+            nickname = null;
         }
 
-        // 更新用户信息
-        if (nickname != null && !nickname.isEmpty()) {
-            user.setNickname(nickname);
+        int updated;
+        try {
+            updated = this.baseMapper.updateProfile(id, nickname, email, avatarUrl, version);
+        } catch (DuplicateKeyException e) {
+            return ProfileUpdateResult.EMAIL_TAKEN;
         }
+        profileCache.invalidate(id);
+        RequestUserContext.evict(id);
 
-        if (email != null && !email.isEmpty()) {
-            user.setEmail(email);
+        if (updated == 0) {
+            // 未更新任何行：用户不存在，或版本号不一致
+            return version != null && this.baseMapper.checkIdExists(id) > 0
+                    ? ProfileUpdateResult.VERSION_CONFLICT : ProfileUpdateResult.NOT_FOUND;
         }
-
-        if (avatarUrl != null) {
-            user.setAvatarUrl(avatarUrl);
+        if (email != null) {
+            unknownAccountCache.invalidate(email);
+            accountAvailabilityService.recordEmailChange(email);
         }
-
-        // 保存更新
-        return updateById(user);
+        readYourWrites.recordWrite(id);
+        return ProfileUpdateResult.UPDATED;
     }
 
     /**
@@ -169,30 +371,22 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 重置是否成功
      */
     public boolean resetPassword(Long userId, String newPassword) {
-        // 获取用户
-        User user = getById(userId);
-        if (user == null) {
-            return false;
-        }
-
-        // 更新密码
-        user.setPassword(SaSecureUtil.sha256(newPassword));
-
-        // 保存更新
-        return updateById(user);
+        boolean success = authMetrics.record(AuthMetrics.RESET_PASSWORD, () -> updatePassword(userId, newPassword));
+        auditLog.record(AuthMetrics.RESET_PASSWORD, success, userId, null);
+        return success;
     }
 
-    /**
-     * 清理过期的重置令牌
-     */
-    private void cleanExpiredTokens() {
-        long currentTime = System.currentTimeMillis();
-        tokenCreationTimes.forEach((userId, creationTime) -> {
-            if (currentTime - creationTime > TOKEN_EXPIRATION) {
-                resetTokens.remove(userId);
-                tokenCreationTimes.remove(userId);
-            }
-        });
+    private boolean updatePassword(Long userId, String newPassword) {
+        // 只更新密码列，用户不存在时影响行数为0
+        String passwordHash = passwordHashingService.hash(newPassword);
+        boolean updated = this.baseMapper.updatePassword(userId, passwordHash) > 0;
+        // 版本号已变化，缓存的资料失效
+        profileCache.invalidate(userId);
+        RequestUserContext.evict(userId);
+        if (updated) {
+            readYourWrites.recordWrite(userId);
+        }
+        return updated;
     }
 
     /**
@@ -202,10 +396,7 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 重置令牌
      */
     public String generateResetToken(Long userId) {
-        String token = UUID.randomUUID().toString();
-        resetTokens.put(userId, token);
-        tokenCreationTimes.put(userId, System.currentTimeMillis());
-        return token;
+        return resetTokenStore.issue(userId);
     }
 
     /**
@@ -216,20 +407,7 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 验证是否成功
      */
     public boolean verifyResetToken(Long userId, String token) {
-        // 检查令牌是否存在
-        if (!resetTokens.containsKey(userId)) {
-            return false;
-        }
-
-        // 检查令牌是否匹配
-        String storedToken = resetTokens.get(userId);
-        if (!storedToken.equals(token)) {
-            return false;
-        }
-
-        // 检查令牌是否过期
-        long creationTime = tokenCreationTimes.getOrDefault(userId, 0L);
-        return System.currentTimeMillis() - creationTime <= TOKEN_EXPIRATION;
+        return resetTokenStore.verify(userId, token);
     }
 
     /**
@@ -238,8 +416,7 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @param userId 用户ID
      */
     public void removeResetToken(Long userId) {
-        resetTokens.remove(userId);
-        tokenCreationTimes.remove(userId);
+        resetTokenStore.remove(userId);
     }
 
     /**
@@ -252,20 +429,175 @@ public class UserService extends ServiceImpl<UserMapper, User> {
      * @return 注销是否成功
      */
     public boolean deleteAccount(Long userId) {
-        // 获取用户
-        User user = getById(userId);
-        if (user == null) {
-            return false;
-        }
+        boolean success = authMetrics.record(AuthMetrics.DELETE_ACCOUNT, () -> deleteAndLogout(userId));
+        auditLog.record(AuthMetrics.DELETE_ACCOUNT, success, userId, null);
+        return success;
+    }
 
-        // 执行删除操作
+    private boolean deleteAndLogout(Long userId) {
+        // 执行删除操作，用户不存在时返回false
         boolean result = removeById(userId);
 
         // 如果删除成功，注销当前登录状态
         if (result) {
+            roleCache.invalidate(userId);
+            profileCache.invalidate(userId);
+            RequestUserContext.evict(userId);
+            accountAvailabilityService.recordRemoval();
+            readYourWrites.recordWrite(userId);
             StpUtil.logout(userId);
         }
 
         return result;
     }
+
+    /**
+     * 删除用户（管理员操作），删除成功后注销该用户的全部会话
+     *
+     * @param userId 用户ID
+     * @return 删除是否成功
+     */
+    public boolean removeUser(Long userId) {
+        boolean success = authMetrics.record(AuthMetrics.REMOVE_USER, () -> deleteUser(userId));
+        auditLog.record(AuthMetrics.REMOVE_USER, success, userId, null);
+        return success;
+    }
+
+    private boolean deleteUser(Long userId) {
+        boolean result = removeById(userId);
+        roleCache.invalidate(userId);
+        profileCache.invalidate(userId);
+        RequestUserContext.evict(userId);
+        if (result) {
+            accountAvailabilityService.recordRemoval();
+            readYourWrites.recordWrite(userId);
+            StpUtil.logout(userId);
+        }
+        return result;
+    }
+
+    /**
+     * 批量删除用户（管理员操作）
+     * <p>
+     * 按 {@link #BULK_CHUNK_SIZE} 分块，每块在独立事务中以一条 DELETE 完成，提交后注销这些用户的全部会话并清除缓存，
+     * 并为每个被删除的用户记录一条审计事件。操作者本人不会被删除。
+     * </p>
+     *
+     * @param request 按 id 列表或过滤条件选择用户
+     * @param operatorId 操作者ID
+     * @return 影响的用户数与每块耗时
+     * @throws InvalidBulkRequestException 未选择用户
+     */
+    public BulkOperationResult bulkDelete(BulkUserRequest request, Long operatorId) {
+        return runInChunks(request, operatorId,
+                ids -> this.baseMapper.deleteBatchIds(ids),
+                ids -> {
+                    for (Long id : ids) {
+                        roleCache.invalidate(id);
+                        profileCache.invalidate(id);
+                        RequestUserContext.evict(id);
+                        StpUtil.logout(id);
+                        auditLog.record(AuthMetrics.REMOVE_USER, true, id, null);
+                    }
+                    accountAvailabilityService.recordRemoval();
+                });
+    }
+
+    /**
+     * 批量修改用户角色（管理员操作）
+     * <p>
+     * 分块方式同 {@link #bulkDelete}，每块一条 UPDATE，提交后清除这些用户的角色缓存，下次权限校验即按新角色生效，
+     * 并为每个被修改的用户记录一条 {@link AuditLog#UPDATE_ROLE} 审计事件。操作者本人的角色不会被修改。
+     * </p>
+     *
+     * @param request 按 id 列表或过滤条件选择用户，newRole 为新角色
+     * @param operatorId 操作者ID
+     * @return 影响的用户数与每块耗时
+     * @throws InvalidBulkRequestException 新角色无效或未选择用户
+     */
+    public BulkOperationResult bulkUpdateRole(BulkUserRequest request, Long operatorId) {
+        String newRole = request.getNewRole();
+        if (newRole == null || !ROLES.contains(newRole)) {
+            throw new InvalidBulkRequestException("新角色只能是 " + String.join("、", ROLES));
+        }
+        return runInChunks(request, operatorId,
+                ids -> this.baseMapper.updateRoleByIds(ids, newRole),
+                ids -> ids.forEach(id -> {
+                    roleCache.invalidate(id);
+                    profileCache.invalidate(id);
+                    RequestUserContext.evict(id);
+                    auditLog.record(AuditLog.UPDATE_ROLE, true, id, null);
+                }));
+    }
+
+    /**
+     * 逐块执行批量操作：按 id 列表时直接切分；按过滤条件时用 id 游标逐页读取，每页即一块
+     *
+     * @param chunkAction 在事务内对块中仍存在的用户执行
+     * @param afterCommit 事务提交后对实际处理的用户执行的清理
+     */
+    private BulkOperationResult runInChunks(BulkUserRequest request, Long operatorId,
+                                            Consumer<List<Long>> chunkAction, Consumer<List<Long>> afterCommit) {
+        List<BulkOperationResult.Chunk> chunks = new ArrayList<>();
+        int affected = 0;
+
+        if (request.hasIds()) {
+            LinkedHashSet<Long> distinct = new LinkedHashSet<>(request.getIds());
+            distinct.remove(null);
+            distinct.remove(operatorId);
+            List<Long> ids = new ArrayList<>(distinct);
+            for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+                affected += runChunk(chunks, chunk, chunkAction, afterCommit);
+            }
+        } else if (request.hasFilter()) {
+            String role = request.getRole() == null || request.getRole().isEmpty() ? null : request.getRole();
+            String prefix = request.getUsernamePrefix() == null || request.getUsernamePrefix().isEmpty()
+                    ? null : escapeLike(request.getUsernamePrefix());
+            long after = 0;
+            List<UserSummary> page;
+            do {
+                page = this.baseMapper.listUserSummaries(after, BULK_CHUNK_SIZE, role, prefix);
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = page.get(page.size() - 1).id();
+                List<Long> chunk = new ArrayList<>(page.size());
+                for (UserSummary summary : page) {
+                    if (!summary.id().equals(operatorId)) {
+                        chunk.add(summary.id());
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    affected += runChunk(chunks, chunk, chunkAction, afterCommit);
+                }
+            } while (page.size() == BULK_CHUNK_SIZE);
+        } else {
+            throw new InvalidBulkRequestException("需要指定用户ID列表或过滤条件");
+        }
+
+        log.info("批量操作完成：影响 {} 个用户，共 {} 块", affected, chunks.size());
+        return new BulkOperationResult(affected, chunks);
+    }
+
+    private int runChunk(List<BulkOperationResult.Chunk> chunks, List<Long> chunk,
+                         Consumer<List<Long>> chunkAction, Consumer<List<Long>> afterCommit) {
+        long start = System.nanoTime();
+        // 先锁定块中仍存在的用户，只处理这些用户，提交后的清理与审计不包含不存在的ID
+        List<Long> affected = transactionTemplate.execute(status -> {
+            List<Long> existing = this.baseMapper.lockExistingIds(chunk);
+            if (!existing.isEmpty()) {
+                chunkAction.accept(existing);
+            }
+            return existing;
+        });
+        if (affected == null) {
+            affected = List.of();
+        }
+        afterCommit.accept(affected);
+        readYourWrites.recordWrites(affected);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        chunks.add(new BulkOperationResult.Chunk(chunks.size(), chunk.size(), affected.size(), millis));
+        return affected.size();
+    }
 }
@@ -0,0 +1,16 @@
+package com.guducat.backend.session;
+
+import java.util.Map;
+
+/**
+ * 支持批量更新的 Sa-Token 存储，{@link CoalescingSaTokenDao} 刷新时一次写入一批
+ */
+public interface BatchSaTokenDao {
+
+    /**
+     * 批量执行 {@code update(key, value)}：只更新已存在的键，保留剩余有效期
+     *
+     * @param values 格式：<键, 新值>
+     */
+    void updateAll(Map<String, String> values);
+}
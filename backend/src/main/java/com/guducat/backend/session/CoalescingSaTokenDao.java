@@ -0,0 +1,271 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.session.SaSession;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 合并 token 最后活跃时间写入的 Sa-Token 存储装饰器。
+ * <p>
+ * 开启 {@code sa-token.active-timeout} 后，每个校验登录的请求都会把 token 的最后活跃时间（键中含 {@code :last-active:}）
+ * 更新为当前时间，使用远程存储时相当于每个请求多一次写入。这里把这类更新先记在内存中，同一 token 的多次更新相互覆盖，
+ * 由 {@link #flush()} 每隔 flushInterval 批量写入被装饰的存储，因此每个 token 每个周期最多写入一次。
+ * 其他写入与全部读取直接交给被装饰的存储，只有本节点读取最后活跃时间时优先返回内存中尚未写入的值。
+ * 已写入的值由被装饰的存储负责缓存（{@link RedisSaTokenDao} 把最后活跃时间放在近端缓存中），
+ * 因此每个 token 每个周期最多读取存储一次；这里不保留已写入的值，否则其他节点续期后本节点仍会读到旧值。
+ * </p>
+ * <p>
+ * 代价是存储中的最后活跃时间最多落后一个刷新周期：多节点共享会话时，其他节点看到的空闲时间可能偏大，
+ * token 最多提前一个周期被冻结；进程退出时 {@link #destroy()} 写入剩余的更新，宕机则丢失最近一个周期的续期。
+ * 刷新周期应远小于 active-timeout。
+ * </p>
+ */
+@Slf4j
+public class CoalescingSaTokenDao implements SaTokenDao {
+
+    private static final String RENEWAL_SEGMENT = ":last-active:";
+
+    // 每批写入的条数
+    private static final int FLUSH_BATCH = 1000;
+
+    private final SaTokenDao delegate;
+
+    private final Duration flushInterval;
+
+    // 尚未写入的续期，格式：<last-active 键, 值>；条目数不超过本周期内活跃的 token 数
+    private final ConcurrentHashMap<String, String> pending = new ConcurrentHashMap<>();
+
+    // 串行化定时刷新与关闭时的刷新
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder recordedCount = new LongAdder();
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    /**
+     * @param delegate 被装饰的存储
+     * @param flushInterval 刷新周期，即存储中最后活跃时间的最大延迟
+     */
+    public CoalescingSaTokenDao(SaTokenDao delegate, Duration flushInterval) {
+        this.delegate = delegate;
+        this.flushInterval = flushInterval;
+    }
+
+    // ------------------------ 生命周期
+
+    @Override
+    public void init() {
+        delegate.init();
+    }
+
+    /**
+     * 写入剩余的续期后关闭被装饰的存储
+     */
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("关闭时写入 token 续期失败，丢弃 {} 条", pending.size(), e);
+        }
+        delegate.destroy();
+    }
+
+    /**
+     * 把尚未写入的续期批量写入被装饰的存储；写入失败时保留，下次刷新重试
+     *
+     * @return 本次写入的条数
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int written = 0;
+            Map<String, String> batch = new HashMap<>();
+            for (Map.Entry<String, String> entry : pending.entrySet()) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() == FLUSH_BATCH) {
+                    written += write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                written += write(batch);
+            }
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int write(Map<String, String> batch) {
+        if (delegate instanceof BatchSaTokenDao batchDao) {
+            batchDao.updateAll(batch);
+        } else {
+            batch.forEach(delegate::update);
+        }
+        // 只移除已写入的值：写入期间又有新的续期时保留，下次刷新写入
+        batch.forEach(pending::remove);
+        writtenCount.add(batch.size());
+        return batch.size();
+    }
+
+    // ------------------------ 字符串读写
+
+    @Override
+    public String get(String key) {
+        if (isRenewal(key)) {
+            String value = pending.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return delegate.get(key);
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        pending.remove(key);
+        delegate.set(key, value, timeout);
+    }
+
+    @Override
+    public void update(String key, String value) {
+        if (isRenewal(key)) {
+            pending.put(key, value);
+            recordedCount.increment();
+        } else {
+            delegate.update(key, value);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        pending.remove(key);
+        delegate.delete(key);
+    }
+
+    @Override
+    public long getTimeout(String key) {
+        return delegate.getTimeout(key);
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        delegate.updateTimeout(key, timeout);
+    }
+
+    // ------------------------ 对象与会话读写
+
+    @Override
+    public Object getObject(String key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public <T> T getObject(String key, Class<T> classType) {
+        return delegate.getObject(key, classType);
+    }
+
+    @Override
+    public void setObject(String key, Object object, long timeout) {
+        delegate.setObject(key, object, timeout);
+    }
+
+    @Override
+    public void updateObject(String key, Object object) {
+        delegate.updateObject(key, object);
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        delegate.deleteObject(key);
+    }
+
+    @Override
+    public long getObjectTimeout(String key) {
+        return delegate.getObjectTimeout(key);
+    }
+
+    @Override
+    public void updateObjectTimeout(String key, long timeout) {
+        delegate.updateObjectTimeout(key, timeout);
+    }
+
+    @Override
+    public SaSession getSession(String sessionId) {
+        return delegate.getSession(sessionId);
+    }
+
+    @Override
+    public void setSession(SaSession session, long timeout) {
+        delegate.setSession(session, timeout);
+    }
+
+    @Override
+    public void updateSession(SaSession session) {
+        delegate.updateSession(session);
+    }
+
+    @Override
+    public void deleteSession(String sessionId) {
+        delegate.deleteSession(sessionId);
+    }
+
+    @Override
+    public long getSessionTimeout(String sessionId) {
+        return delegate.getSessionTimeout(sessionId);
+    }
+
+    @Override
+    public void updateSessionTimeout(String sessionId, long timeout) {
+        delegate.updateSessionTimeout(sessionId, timeout);
+    }
+
+    @Override
+    public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+        return delegate.searchData(prefix, keyword, start, size, sortType);
+    }
+
+    // ------------------------ 统计
+
+    public SaTokenDao getDelegate() {
+        return delegate;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * 尚未写入的续期数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 累计记录的续期数
+     */
+    public long getRecordedCount() {
+        return recordedCount.sum();
+    }
+
+    /**
+     * 累计写入存储的续期数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    private static boolean isRenewal(String key) {
+        return key.contains(RENEWAL_SEGMENT);
+    }
+}
@@ -0,0 +1,572 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.util.SaFoxUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 持久化到本地文件的 Sa-Token 存储，重启后会话不丢失，适合单节点部署。
+ * <p>
+ * 全部数据常驻内存（键 → 值 + 过期时间戳），读取不访问磁盘；每次写入先追加一条记录到日志文件，再更新内存。
+ * 对象与 SaSession 由 Sa-Token 的序列化器转为字符串后按字符串存储。
+ * </p>
+ * <p>
+ * 磁盘上是一个快照文件加一组按代编号的日志文件：{@code snapshot-N.dat} 是日志 N 开始时（或之后）的全部数据，
+ * 启动时以只读内存映射加载快照，再依次回放编号不小于 N 的日志。日志增长到超过快照大小（且不小于
+ * compactMinBytes）时压缩：先切换到新一代日志，再不持锁地把内存数据写成新快照，完成后删除旧文件。
+ * 压缩期间的写入同时进入新日志，回放时覆盖快照中的旧值，因此快照不需要是某一时刻的精确副本。
+ * </p>
+ * <p>
+ * 过期数据读取时视为不存在，由 {@link #purgeExpired()} 定期从内存移除，不写日志：回放时直接跳过已过期的记录，
+ * 压缩时也不写入快照。日志写入操作系统页缓存后即返回，进程崩溃不丢数据，宕机可能丢失最近一次 {@link #sync()} 之后的写入。
+ * </p>
+ */
+@Slf4j
+public class FileSaTokenDao implements SaTokenDaoByObjectFollowString, BatchSaTokenDao {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private static final String LOG_PREFIX = "log-";
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final String LOCK_FILE = "lock";
+
+    private static final int LOG_BUFFER_SIZE = 16 * 1024;
+
+    private static final int SNAPSHOT_BUFFER_SIZE = 1024 * 1024;
+
+    private final ConcurrentHashMap<String, Entry> data = new ConcurrentHashMap<>();
+
+    // 串行化日志追加与内存更新，保证日志中的记录顺序与内存中的最终状态一致；读取不加锁
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final Path directory;
+
+    private final long compactMinBytes;
+
+    private final LongSupplier clock;
+
+    // 以下字段只在持有 writeLock 时修改
+    private FileChannel lockChannel;
+
+    private SessionLog.Writer journal;
+
+    private long generation;
+
+    private volatile boolean open;
+
+    private volatile long logBytes;
+
+    private volatile long snapshotBytes;
+
+    private volatile long lastRecoveryMillis;
+
+    /**
+     * @param directory 数据目录，不存在时自动创建
+     * @param compactMinBytes 日志达到该大小后才考虑压缩
+     */
+    public FileSaTokenDao(Path directory, long compactMinBytes) {
+        this(directory, compactMinBytes, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟，测试时可替换为可控时钟；过期时间戳会持久化，因此必须是墙上时间
+     */
+    public FileSaTokenDao(Path directory, long compactMinBytes, LongSupplier clock) {
+        this.directory = directory;
+        this.compactMinBytes = compactMinBytes;
+        this.clock = clock;
+    }
+
+    // ------------------------ 生命周期
+
+    /**
+     * 从磁盘恢复数据并打开日志，由 Sa-Token 在注册存储时调用，重复调用无效果
+     */
+    @Override
+    public void init() {
+        writeLock.lock();
+        try {
+            if (!open) {
+                lockDirectory();
+                recover();
+                open = true;
+            }
+        } catch (IOException e) {
+            closeLock();
+            throw new UncheckedIOException("会话存储恢复失败：" + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘并关闭日志，之后的写入会抛出异常
+     */
+    @Override
+    public void destroy() {
+        writeLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            journal.close();
+        } catch (IOException e) {
+            log.warn("关闭会话存储日志失败：{}", directory, e);
+        } finally {
+            closeLock();
+            data.clear();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 锁定数据目录，防止多个进程同时写入同一组文件
+     */
+    private void lockDirectory() throws IOException {
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (lockChannel.tryLock() == null) {
+            throw new IOException("会话存储目录已被其他进程使用：" + directory);
+        }
+    }
+
+    private void closeLock() {
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                log.warn("释放会话存储目录锁失败：{}", directory, e);
+            }
+            lockChannel = null;
+        }
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        TreeSet<Long> snapshots = new TreeSet<>();
+        TreeSet<Long> logs = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // 未完成的压缩留下的临时快照
+                    Files.delete(file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshots.add(parseGeneration(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+                } else if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    logs.add(parseGeneration(name, LOG_PREFIX, LOG_SUFFIX));
+                }
+            }
+        }
+
+        data.clear();
+        long now = clock.getAsLong();
+        SessionLog.RecordHandler handler = (op, key, value, expireAt) -> apply(op, key, value, expireAt, now);
+
+        long base = snapshots.isEmpty() ? 0 : snapshots.last();
+        snapshotBytes = 0;
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshotPath(base);
+            long end = SessionLog.replay(snapshot, handler);
+            if (end < Files.size(snapshot)) {
+                throw new IOException("会话快照已损坏：" + snapshot);
+            }
+            snapshotBytes = end;
+        }
+
+        generation = logs.isEmpty() ? base : Math.max(base, logs.last());
+        long logEnd = 0;
+        for (long gen : logs.tailSet(base)) {
+            Path file = logPath(gen);
+            long end = SessionLog.replay(file, handler);
+            if (end < Files.size(file)) {
+                log.warn("会话日志 {} 在位置 {} 之后的 {} 字节不完整或已损坏，已忽略", file.getFileName(), end, Files.size(file) - end);
+            }
+            if (gen == generation) {
+                logEnd = end;
+            }
+        }
+
+        // 较旧的快照与日志已被最新快照覆盖，是上次压缩结束前未来得及删除的文件
+        deleteGenerationsBefore(base);
+        journal = SessionLog.Writer.open(logPath(generation), logEnd, LOG_BUFFER_SIZE);
+        logBytes = journal.size();
+
+        lastRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("会话存储恢复完成：{} 条数据，快照 {} 字节，日志 {} 字节，耗时 {} ms",
+                data.size(), snapshotBytes, logBytes, lastRecoveryMillis);
+    }
+
+    private void apply(byte op, String key, String value, long expireAt, long now) {
+        switch (op) {
+            case SessionLog.OP_SET -> {
+                Entry entry = new Entry(value, expireAt);
+                if (entry.isExpired(now)) {
+                    data.remove(key);
+                } else {
+                    data.put(key, entry);
+                }
+            }
+            case SessionLog.OP_DELETE -> data.remove(key);
+            case SessionLog.OP_EXPIRE -> data.computeIfPresent(key, (k, entry) -> {
+                Entry updated = new Entry(entry.value(), expireAt);
+                return updated.isExpired(now) ? null : updated;
+            });
+            default -> throw new IllegalStateException("未知的会话日志操作：" + op);
+        }
+    }
+
+    // ------------------------ 字符串读写
+
+    @Override
+    public String get(String key) {
+        Entry entry = liveEntry(key);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
+            return;
+        }
+        Entry entry = new Entry(value, expireAt(timeout));
+        writeLock.lock();
+        try {
+            append(SessionLog.OP_SET, key, value, entry.expireAt());
+            data.put(key, entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void update(String key, String value) {
+        writeLock.lock();
+        try {
+            Entry current = liveEntry(key);
+            if (current != null) {
+                append(SessionLog.OP_SET, key, value, current.expireAt());
+                data.put(key, new Entry(value, current.expireAt()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 批量更新，整批只获取一次写锁
+     */
+    @Override
+    public void updateAll(Map<String, String> values) {
+        writeLock.lock();
+        try {
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                update(value.getKey(), value.getValue());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        writeLock.lock();
+        try {
+            if (data.containsKey(key)) {
+                append(SessionLog.OP_DELETE, key, null, NEVER_EXPIRE);
+                data.remove(key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long getTimeout(String key) {
+        Entry entry = liveEntry(key);
+        if (entry == null) {
+            return NOT_VALUE_EXPIRE;
+        }
+        if (entry.expireAt() == NEVER_EXPIRE) {
+            return NEVER_EXPIRE;
+        }
+        return (entry.expireAt() - clock.getAsLong()) / 1000;
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        writeLock.lock();
+        try {
+            Entry current = liveEntry(key);
+            if (current != null) {
+                long expireAt = expireAt(timeout);
+                append(SessionLog.OP_EXPIRE, key, null, expireAt);
+                data.put(key, new Entry(current.value(), expireAt));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+        long now = clock.getAsLong();
+        List<String> keys = new ArrayList<>();
+        data.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) {
+                keys.add(key);
+            }
+        });
+        return SaFoxUtil.searchList(keys, prefix, keyword, start, size, sortType);
+    }
+
+    private Entry liveEntry(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.isExpired(clock.getAsLong())) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private long expireAt(long timeout) {
+        return timeout == NEVER_EXPIRE ? NEVER_EXPIRE : clock.getAsLong() + timeout * 1000;
+    }
+
+    private void append(byte op, String key, String value, long expireAt) {
+        if (!open) {
+            throw new IllegalStateException("会话存储未打开：" + directory);
+        }
+        try {
+            journal.append(op, key, value, expireAt);
+            journal.flush();
+            logBytes = journal.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入会话日志失败：" + directory, e);
+        }
+    }
+
+    // ------------------------ 后台维护
+
+    /**
+     * 从内存中移除已过期的数据
+     * <p>
+     * 只移除检查过的那个条目：检查之后被并发的 set 刷新的键保留新条目，内存与日志保持一致。
+     * </p>
+     *
+     * @return 本次移除的条目数
+     */
+    public int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        for (Map.Entry<String, Entry> e : data.entrySet()) {
+            if (e.getValue().isExpired(now) && data.remove(e.getKey(), e.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * 把已写入的日志刷到磁盘，刷盘期间不阻塞写入
+     */
+    public void sync() {
+        SessionLog.Writer current;
+        writeLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            current = journal;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            current.force();
+        } catch (ClosedByInterruptException e) {
+            throw new UncheckedIOException("会话日志刷盘被中断，日志已关闭：" + directory, e);
+        } catch (ClosedChannelException e) {
+            // 并发的压缩已切换并关闭了该日志，关闭时已刷盘；仍是当前日志时说明被意外关闭
+            if (isCurrentJournal(current)) {
+                throw new UncheckedIOException("会话日志已关闭：" + directory, e);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("会话日志刷盘失败：" + directory, e);
+        }
+    }
+
+    private boolean isCurrentJournal(SessionLog.Writer writer) {
+        writeLock.lock();
+        try {
+            return open && journal == writer;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 日志达到压缩条件时压缩
+     *
+     * @return 是否执行了压缩
+     */
+    public boolean compactIfNeeded() {
+        long logBytes = getLogBytes();
+        if (!open || logBytes < compactMinBytes || logBytes < snapshotBytes) {
+            return false;
+        }
+        return compact();
+    }
+
+    /**
+     * 把内存中的有效数据写成新快照，并删除被覆盖的旧快照与日志
+     *
+     * @return 是否执行了压缩，存储未打开或已有压缩在进行时返回 false
+     */
+    public boolean compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            // 1. 切换到新一代日志，之后的写入都进入新日志
+            long next;
+            writeLock.lock();
+            try {
+                if (!open) {
+                    return false;
+                }
+                next = generation + 1;
+                SessionLog.Writer nextLog = SessionLog.Writer.open(logPath(next), 0, LOG_BUFFER_SIZE);
+                journal.close();
+                journal = nextLog;
+                generation = next;
+                logBytes = nextLog.size();
+            } finally {
+                writeLock.unlock();
+            }
+
+            // 2. 不持锁写入快照，完整写入并刷盘后再原子替换为正式文件
+            long start = System.nanoTime();
+            Path temp = directory.resolve(SNAPSHOT_PREFIX + next + SNAPSHOT_SUFFIX + TEMP_SUFFIX);
+            long now = clock.getAsLong();
+            long size;
+            try (SessionLog.Writer snapshot = SessionLog.Writer.open(temp, 0, SNAPSHOT_BUFFER_SIZE)) {
+                for (var entry : data.entrySet()) {
+                    Entry value = entry.getValue();
+                    if (!value.isExpired(now)) {
+                        snapshot.append(SessionLog.OP_SET, entry.getKey(), value.value(), value.expireAt());
+                    }
+                }
+                snapshot.flush();
+                size = snapshot.size();
+            }
+            Files.move(temp, snapshotPath(next), StandardCopyOption.ATOMIC_MOVE);
+            snapshotBytes = size;
+
+            // 3. 新快照已包含旧文件的全部内容
+            deleteGenerationsBefore(next);
+            log.info("会话存储压缩完成：快照 {} 字节，耗时 {} ms", size, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("会话存储压缩失败：" + directory, e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void deleteGenerationsBefore(long gen) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean stale = name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                        && parseGeneration(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < gen
+                        || name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)
+                        && parseGeneration(name, LOG_PREFIX, LOG_SUFFIX) < gen;
+                if (stale) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private Path snapshotPath(long gen) {
+        return directory.resolve(SNAPSHOT_PREFIX + gen + SNAPSHOT_SUFFIX);
+    }
+
+    private Path logPath(long gen) {
+        return directory.resolve(LOG_PREFIX + gen + LOG_SUFFIX);
+    }
+
+    private static long parseGeneration(String name, String prefix, String suffix) {
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    // ------------------------ 统计
+
+    /**
+     * 内存中的条目数，含尚未清理的过期条目
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * 当前日志文件的大小（字节）
+     */
+    public long getLogBytes() {
+        return logBytes;
+    }
+
+    /**
+     * 最新快照文件的大小（字节）
+     */
+    public long getSnapshotBytes() {
+        return snapshotBytes;
+    }
+
+    /**
+     * 最近一次启动恢复的耗时（毫秒）
+     */
+    public long getLastRecoveryMillis() {
+        return lastRecoveryMillis;
+    }
+
+    /**
+     * @param value 值
+     * @param expireAt 过期时间戳（毫秒），永不过期为 {@link #NEVER_EXPIRE}
+     */
+    private record Entry(String value, long expireAt) {
+
+        boolean isExpired(long now) {
+            return expireAt != NEVER_EXPIRE && expireAt <= now;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.dev33.satoken.util.SaFoxUtil;
+import com.guducat.backend.cache.LocalCache;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis 的 Sa-Token 存储，多节点共享会话。
+ * <p>
+ * 所有请求线程共用一条 Lettuce 连接，并发请求的命令在同一条连接上连续写出、不等待前一条的响应；
+ * 单次操作需要的多条命令（如读取值和剩余有效期、写入后发布失效通知）也一起发出，只等待一个往返。
+ * </p>
+ * <p>
+ * token → 登录ID 的映射（键中含 {@code :token:}）与开启 active-timeout 后 token 的最后活跃时间（键中含 {@code :last-active:}）
+ * 是每个需要登录的请求都要读取的数据，额外保存在本节点的近端缓存中，命中时不访问 Redis。
+ * 任一节点修改或删除这类键（注销、踢人下线、顶人下线、续期、写入最后活跃时间）时向 channel 发布键名，
+ * 所有节点收到后使本地副本失效；缓存条目同时不会超过其在 Redis 中的剩余有效期。
+ * 订阅连接断开期间可能错过通知，重连时清空近端缓存，此外条目最长存活时间即近端缓存的 TTL。
+ * </p>
+ * <p>
+ * 同一频道也用于广播其他本地缓存的失效（见 {@link com.guducat.backend.cache.ClusterCacheInvalidator}）：
+ * {@link #publish} 发布的消息与 token 键互不重叠，所有消息都会转发给 {@link #addMessageListener} 注册的监听器。
+ * </p>
+ * <p>
+ * 对象与 SaSession 由 Sa-Token 的序列化器转为字符串后按字符串存储。
+ * </p>
+ */
+@Slf4j
+public class RedisSaTokenDao implements SaTokenDaoByObjectFollowString, BatchSaTokenDao {
+
+    private static final String TOKEN_SEGMENT = ":token:";
+
+    private static final String LAST_ACTIVE_SEGMENT = ":last-active:";
+
+    private static final int SCAN_BATCH = 1000;
+
+    private final RedisURI uri;
+
+    private final String channel;
+
+    private final LocalCache<String, CachedValue> nearCache;
+
+    // 频道消息的其他监听器
+    private final List<Consumer<String>> messageListeners = new CopyOnWriteArrayList<>();
+
+    private RedisClient client;
+
+    private StatefulRedisConnection<String, String> connection;
+
+    private StatefulRedisPubSubConnection<String, String> subscription;
+
+    private RedisCommands<String, String> sync;
+
+    private RedisAsyncCommands<String, String> async;
+
+    private Duration timeout;
+
+    /**
+     * @param uri Redis 地址，如 {@code redis://localhost:6379/0}
+     * @param channel 近端缓存失效通知的频道，共享会话的所有节点必须相同
+     * @param nearCache 近端缓存
+     */
+    public RedisSaTokenDao(RedisURI uri, String channel, LocalCache<String, CachedValue> nearCache) {
+        this.uri = uri;
+        this.channel = channel;
+        this.nearCache = nearCache;
+    }
+
+    // ------------------------ 生命周期
+
+    /**
+     * 建立命令连接与订阅连接，由 Sa-Token 在注册存储时调用，重复调用无效果
+     */
+    @Override
+    public synchronized void init() {
+        if (client != null) {
+            return;
+        }
+        client = RedisClient.create(uri);
+        client.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+                // 断线期间可能错过失效通知
+                nearCache.invalidateAll();
+            }
+        });
+        try {
+            connection = client.connect();
+            sync = connection.sync();
+            async = connection.async();
+            timeout = connection.getTimeout();
+
+            subscription = client.connectPubSub();
+            subscription.addListener(new RedisPubSubAdapter<>() {
+                @Override
+                public void message(String channel, String key) {
+                    nearCache.invalidate(key);
+                    for (Consumer<String> listener : messageListeners) {
+                        listener.accept(key);
+                    }
+                }
+            });
+            subscription.sync().subscribe(channel);
+        } catch (RuntimeException e) {
+            destroy();
+            throw e;
+        }
+        log.info("已连接 Redis 会话存储：{}", uri.toURI());
+    }
+
+    /**
+     * 关闭连接
+     */
+    @Override
+    public synchronized void destroy() {
+        if (client == null) {
+            return;
+        }
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+        client.shutdown();
+        client = null;
+        nearCache.invalidateAll();
+    }
+
+    // ------------------------ 字符串读写
+
+    @Override
+    public String get(String key) {
+        if (!isNearCached(key)) {
+            return sync.get(key);
+        }
+        CachedValue cached = nearCache.get(key, this::load);
+        if (cached.isExpired(System.nanoTime())) {
+            nearCache.invalidate(key);
+            return null;
+        }
+        return cached.value();
+    }
+
+    /**
+     * 从 Redis 读取值和剩余有效期，两条命令一起发出
+     */
+    private CachedValue load(String key) {
+        RedisFuture<String> value = async.get(key);
+        RedisFuture<Long> ttl = async.pttl(key);
+        String result = await(value);
+        long ttlMillis = await(ttl);
+        long expireAt = ttlMillis < 0 ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        return new CachedValue(result, expireAt);
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
+            return;
+        }
+        SetArgs args = timeout == NEVER_EXPIRE ? new SetArgs() : SetArgs.Builder.ex(timeout);
+        write(key, async.set(key, value, args));
+    }
+
+    @Override
+    public void update(String key, String value) {
+        // 只更新已存在的键，保留剩余有效期
+        write(key, async.set(key, value, SetArgs.Builder.xx().keepttl()));
+    }
+
+    /**
+     * 批量更新，整批命令连续发出，只等待一个往返
+     */
+    @Override
+    public void updateAll(Map<String, String> values) {
+        List<RedisFuture<String>> commands = new ArrayList<>(values.size());
+        List<String> nearCachedKeys = new ArrayList<>();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            commands.add(async.set(value.getKey(), value.getValue(), SetArgs.Builder.xx().keepttl()));
+            if (isNearCached(value.getKey())) {
+                nearCachedKeys.add(value.getKey());
+            }
+        }
+        List<RedisFuture<Long>> publishes = new ArrayList<>(nearCachedKeys.size());
+        for (String key : nearCachedKeys) {
+            publishes.add(async.publish(channel, key));
+        }
+        try {
+            commands.forEach(this::await);
+            publishes.forEach(this::await);
+        } finally {
+            nearCachedKeys.forEach(nearCache::invalidate);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        write(key, async.del(key));
+    }
+
+    @Override
+    public long getTimeout(String key) {
+        return sync.ttl(key);
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        write(key, timeout == NEVER_EXPIRE ? async.persist(key) : async.expire(key, timeout));
+    }
+
+    @Override
+    public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+        ScanArgs args = ScanArgs.Builder.matches(prefix + "*" + keyword + "*").limit(SCAN_BATCH);
+        // SCAN 的返回顺序不固定且可能重复，排序去重后分页才稳定
+        TreeSet<String> keys = new TreeSet<>();
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<String> page = sync.scan(cursor, args);
+            keys.addAll(page.getKeys());
+            cursor = page;
+        } while (!cursor.isFinished());
+        return SaFoxUtil.searchList(new ArrayList<>(keys), start, size, sortType);
+    }
+
+    /**
+     * 向失效通知频道发布一条消息，等待发布完成；所有节点（包括本节点）的消息监听器都会收到
+     */
+    public void publish(String message) {
+        await(async.publish(channel, message));
+    }
+
+    /**
+     * 注册频道消息监听器，在订阅连接的线程中调用，不能阻塞
+     */
+    public void addMessageListener(Consumer<String> listener) {
+        messageListeners.add(listener);
+    }
+
+    /**
+     * 等待写命令完成；写入近端缓存中的键时同时发布失效通知，与写命令一起发出。
+     * <p>
+     * 本地副本在写入完成后才失效：写入期间开始的加载可能读到旧值，失效会丢弃这些加载的结果。
+     * </p>
+     */
+    private void write(String key, RedisFuture<?> command) {
+        if (!isNearCached(key)) {
+            await(command);
+            return;
+        }
+        RedisFuture<Long> publish = async.publish(channel, key);
+        try {
+            await(command);
+            await(publish);
+        } finally {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean isNearCached(String key) {
+        return key.contains(TOKEN_SEGMENT) || key.contains(LAST_ACTIVE_SEGMENT);
+    }
+
+    /**
+     * 近端缓存中的值
+     *
+     * @param value 值，Redis 中不存在时为 null
+     * @param expireAt 在 Redis 中过期的时刻（System.nanoTime），永不过期为 Long.MAX_VALUE
+     */
+    public record CachedValue(String value, long expireAt) {
+
+        boolean isExpired(long now) {
+            return expireAt != Long.MAX_VALUE && expireAt - now <= 0;
+        }
+    }
+}
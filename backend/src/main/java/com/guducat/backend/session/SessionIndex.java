@@ -0,0 +1,273 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.listener.SaTokenListenerForSimple;
+import cn.dev33.satoken.secure.SaSecureUtil;
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.session.SaTerminalInfo;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.stp.parameter.SaLoginParameter;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.SessionSummary;
+import com.guducat.backend.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在线会话索引，供管理后台查看和注销会话。
+ * <p>
+ * 每个用户的 token 列表由 Sa-Token 维护在该用户的 Account-Session 中：登录时追加，注销、踢下线、
+ * 超出 {@code sa-token.max-login-count} 被挤下线时移除，因此按用户查询只需读取一次 Account-Session，
+ * 不需要像 {@code StpUtil.searchTokenValue} 那样扫描存储中的全部键。每个用户的 token 数也由 max-login-count 封顶。
+ * </p>
+ * <p>
+ * 这里另外监听登录、注销事件，维护有会话的用户ID集合，按ID升序分页遍历全部在线会话。
+ * token 自然过期不产生事件，过期 token 在读取时过滤，没有有效 token 的用户由 {@link #purgeStale()} 定期移除。
+ * 启动时扫描一次存储重建集合，以包含持久化存储中恢复的会话。多节点共享会话时，集合只包含本节点登录的用户
+ * 和启动时已存在的会话；按用户查看、注销会话读取的是共享的 Account-Session，不受影响。
+ * </p>
+ * <p>
+ * 有效 token 总数在重建和每次 {@link #purgeStale()} 时顺带统计，供运行指标读取，采集指标时不扫描存储。
+ * </p>
+ */
+@Slf4j
+@Component
+public class SessionIndex extends SaTokenListenerForSimple {
+
+    // 会话标识的长度（token SHA-256 摘要的前 16 个十六进制字符）
+    private static final int SESSION_ID_LENGTH = 16;
+
+    // 有会话的用户，格式：<用户ID, TRUE>；增删都在该键的 compute 中完成，orderedUsers 随之更新
+    private final ConcurrentHashMap<Long, Boolean> users = new ConcurrentHashMap<>();
+
+    // 与 users 相同的用户ID，按升序排列用于分页
+    private final ConcurrentSkipListSet<Long> orderedUsers = new ConcurrentSkipListSet<>();
+
+    // 最近一次重建或清理时统计的有效 token 数
+    private volatile long tokenCount;
+
+    // ------------------------ 事件维护
+
+    @Override
+    public void doLogin(String loginType, Object loginId, String tokenValue, SaLoginParameter loginParameter) {
+        if (StpUtil.TYPE.equals(loginType)) {
+            users.compute(toUserId(loginId), (userId, present) -> {
+                orderedUsers.add(userId);
+                return Boolean.TRUE;
+            });
+        }
+    }
+
+    @Override
+    public void doLogout(String loginType, Object loginId, String tokenValue) {
+        onTerminalRemoved(loginType, loginId);
+    }
+
+    @Override
+    public void doKickout(String loginType, Object loginId, String tokenValue) {
+        onTerminalRemoved(loginType, loginId);
+    }
+
+    @Override
+    public void doReplaced(String loginType, Object loginId, String tokenValue) {
+        onTerminalRemoved(loginType, loginId);
+    }
+
+    private void onTerminalRemoved(String loginType, Object loginId) {
+        if (StpUtil.TYPE.equals(loginType)) {
+            removeIfOffline(toUserId(loginId));
+        }
+    }
+
+    /**
+     * 用户已没有有效 token 时从集合中移除；在 compute 中检查，避免与同一用户的并发登录交错
+     */
+    private boolean removeIfOffline(Long userId) {
+        boolean[] removed = new boolean[1];
+        users.computeIfPresent(userId, (id, present) -> {
+            if (hasActiveToken(id)) {
+                return present;
+            }
+            orderedUsers.remove(id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * 扫描存储中的全部 Account-Session 重建用户集合，启动时执行一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long tokens = 0;
+        for (String sessionId : StpUtil.searchSessionId("", 0, -1, false)) {
+            SaSession session = StpUtil.getSessionBySessionId(sessionId);
+            if (session != null && session.getLoginId() != null) {
+                Long userId = toUserId(session.getLoginId());
+                int active = countActiveTokens(userId);
+                if (active > 0) {
+                    tokens += active;
+                    users.compute(userId, (id, present) -> {
+                        orderedUsers.add(id);
+                        return Boolean.TRUE;
+                    });
+                }
+            }
+        }
+        tokenCount = tokens;
+        log.info("在线会话索引重建完成：{} 个用户，耗时 {} ms", users.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 移除已没有有效 token 的用户，并重新统计有效 token 数
+     *
+     * @return 本次移除的用户数
+     */
+    public int purgeStale() {
+        int purged = 0;
+        long tokens = 0;
+        for (Long userId : orderedUsers) {
+            int active = countActiveTokens(userId);
+            tokens += active;
+            if (active == 0 && removeIfOffline(userId)) {
+                purged++;
+            }
+        }
+        tokenCount = tokens;
+        return purged;
+    }
+
+    // ------------------------ 查询与注销
+
+    /**
+     * 用户当前的有效会话，按登录先后排列
+     *
+     * @param userId 用户ID
+     */
+    public List<SessionSummary> listSessions(Long userId) {
+        List<SessionSummary> sessions = new ArrayList<>();
+        for (SaTerminalInfo terminal : StpUtil.getTerminalListByLoginId(userId)) {
+            if (isActive(terminal.getTokenValue())) {
+                sessions.add(new SessionSummary(sessionIdOf(terminal.getTokenValue()), userId,
+                        terminal.getDeviceType(), terminal.getCreateTime()));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 分页遍历全部在线会话，按用户ID升序，同一用户的会话总在同一页
+     *
+     * @param after 上一页返回的 nextAfter，首页不传
+     * @param limit 每页的用户数，默认 20，最大 100
+     */
+    public CursorPage<SessionSummary> listAllSessions(Long after, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? UserService.DEFAULT_PAGE_SIZE : Math.min(limit, UserService.MAX_PAGE_SIZE);
+        List<SessionSummary> items = new ArrayList<>();
+        Iterator<Long> it = (after == null ? orderedUsers : orderedUsers.tailSet(after, false)).iterator();
+        int userCount = 0;
+        Long last = null;
+        while (userCount < pageSize && it.hasNext()) {
+            Long userId = it.next();
+            List<SessionSummary> sessions = listSessions(userId);
+            if (!sessions.isEmpty()) {
+                items.addAll(sessions);
+                userCount++;
+                last = userId;
+            }
+        }
+        boolean hasMore = it.hasNext();
+        return new CursorPage<>(items, hasMore ? last : null, hasMore);
+    }
+
+    /**
+     * 注销用户的指定会话，该会话之后的请求会收到"已被踢下线"
+     *
+     * @param userId 用户ID
+     * @param sessionId 会话标识
+     * @return 是否找到该会话
+     */
+    public boolean revoke(Long userId, String sessionId) {
+        for (SaTerminalInfo terminal : StpUtil.getTerminalListByLoginId(userId)) {
+            if (sessionIdOf(terminal.getTokenValue()).equals(sessionId)) {
+                StpUtil.kickoutByTokenValue(terminal.getTokenValue());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 注销用户的全部会话
+     *
+     * @param userId 用户ID
+     * @return 注销的会话数
+     */
+    public int revokeAll(Long userId) {
+        int count = listSessions(userId).size();
+        StpUtil.kickout(userId);
+        return count;
+    }
+
+    /**
+     * 有会话的用户数，含尚未清理的已过期用户
+     */
+    public int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * 最近一次重建或清理时统计的有效 token 数
+     */
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    private static boolean hasActiveToken(Long userId) {
+        for (SaTerminalInfo terminal : StpUtil.getTerminalListByLoginId(userId)) {
+            if (isActive(terminal.getTokenValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countActiveTokens(Long userId) {
+        int count = 0;
+        for (SaTerminalInfo terminal : StpUtil.getTerminalListByLoginId(userId)) {
+            if (isActive(terminal.getTokenValue())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * token 未过期且未被踢下线、顶下线
+     */
+    private static boolean isActive(String tokenValue) {
+        return StpUtil.getLoginIdByToken(tokenValue) != null;
+    }
+
+    /**
+     * 对外展示的会话标识，不暴露 token 本身
+     */
+    static String sessionIdOf(String tokenValue) {
+        return SaSecureUtil.sha256(tokenValue).substring(0, SESSION_ID_LENGTH);
+    }
+
+    private static Long toUserId(Object loginId) {
+        return loginId instanceof Long id ? id : Long.valueOf(String.valueOf(loginId));
+    }
+}
@@ -0,0 +1,271 @@
+package com.guducat.backend.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 会话存储的文件格式，快照文件与追加日志共用。
+ * <p>
+ * 文件以 8 字节文件头（魔数 + 版本号）开始，之后是连续的记录：
+ * {@code [int 负载长度][int 负载的 CRC32C][byte 操作][long 过期时间戳][int 键长度][键][int 值长度][值]}，
+ * 值长度为 -1 表示没有值。写入中途宕机留下的残缺记录在回放时通过长度与校验和识别，回放到此为止。
+ * </p>
+ */
+final class SessionLog {
+
+    static final byte OP_SET = 1;
+
+    static final byte OP_DELETE = 2;
+
+    static final byte OP_EXPIRE = 3;
+
+    private static final int MAGIC = 0x5341544B;
+
+    private static final int VERSION = 1;
+
+    static final int FILE_HEADER_SIZE = 8;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    // 操作 + 过期时间戳 + 键长度 + 值长度
+    private static final int MIN_PAYLOAD_SIZE = 1 + 8 + 4 + 4;
+
+    // 单条记录的负载上限，回放时超出视为损坏
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+    // 回放时每次映射的最大窗口，超过 2GB 的文件分段映射
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private SessionLog() {
+    }
+
+    /**
+     * 回放时逐条接收记录
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+
+        /**
+         * @param op 操作类型
+         * @param key 键
+         * @param value 值，删除与修改有效期的记录为 null
+         * @param expireAt 过期时间戳（毫秒），永不过期为 -1
+         */
+        void accept(byte op, String key, String value, long expireAt);
+    }
+
+    /**
+     * 以只读内存映射的方式回放文件中的全部完整记录
+     *
+     * @param path 文件路径
+     * @param handler 记录处理器
+     * @return 最后一条完整记录之后的位置；文件不足一个文件头时返回 0
+     * @throws IOException 读取失败，或文件头不是会话存储格式
+     */
+    static long replay(Path path, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FILE_HEADER_SIZE) {
+                return 0;
+            }
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是会话存储文件或版本不兼容：" + path);
+            }
+
+            CRC32C crc = new CRC32C();
+            long position = FILE_HEADER_SIZE;
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                boolean corrupt = false;
+                while (window.remaining() >= RECORD_HEADER_SIZE) {
+                    int start = window.position();
+                    int length = window.getInt(start);
+                    if (length < MIN_PAYLOAD_SIZE || length > MAX_PAYLOAD_SIZE) {
+                        corrupt = true;
+                        break;
+                    }
+                    if (window.remaining() < RECORD_HEADER_SIZE + length) {
+                        // 记录跨越映射窗口，从该记录开始重新映射；位于文件末尾时即为残缺记录
+                        break;
+                    }
+                    ByteBuffer payload = window.slice(start + RECORD_HEADER_SIZE, length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != window.getInt(start + 4) || !decode(payload, handler)) {
+                        corrupt = true;
+                        break;
+                    }
+                    window.position(start + RECORD_HEADER_SIZE + length);
+                }
+                if (window.position() == 0) {
+                    break;
+                }
+                position += window.position();
+                if (corrupt) {
+                    break;
+                }
+            }
+            return position;
+        }
+    }
+
+    private static boolean decode(ByteBuffer payload, RecordHandler handler) {
+        byte op = payload.get();
+        long expireAt = payload.getLong();
+        int keyLength = payload.getInt();
+        if (keyLength < 0 || keyLength > payload.remaining() - 4) {
+            return false;
+        }
+        String key = readString(payload, keyLength);
+        int valueLength = payload.getInt();
+        if (valueLength > payload.remaining()) {
+            return false;
+        }
+        String value = valueLength < 0 ? null : readString(payload, valueLength);
+        handler.accept(op, key, value, expireAt);
+        return true;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 追加写入器，非线程安全，由调用方串行化
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+
+        private final CRC32C crc = new CRC32C();
+
+        private ByteBuffer buffer;
+
+        // 已写入文件的字节数，写入失败时截断回这里，避免半条记录之后再追加新记录
+        private long committed;
+
+        private Writer(FileChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * 打开文件用于追加：不足一个文件头时重写文件头，超出有效长度的残缺尾部被截断
+         *
+         * @param path 文件路径
+         * @param validEnd 回放得到的有效长度，新文件传 0
+         * @param bufferSize 写缓冲区大小
+         */
+        static Writer open(Path path, long validEnd, int bufferSize) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                if (validEnd < FILE_HEADER_SIZE) {
+                    channel.truncate(0);
+                    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+                    while (header.hasRemaining()) {
+                        channel.write(header, header.position());
+                    }
+                    validEnd = FILE_HEADER_SIZE;
+                } else if (channel.size() > validEnd) {
+                    channel.truncate(validEnd);
+                }
+                channel.position(validEnd);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            Writer writer = new Writer(channel, bufferSize);
+            writer.committed = validEnd;
+            return writer;
+        }
+
+        /**
+         * 把一条记录写入缓冲区，缓冲区不足时先写出
+         */
+        void append(byte op, String key, String value, long expireAt) throws IOException {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+            int length = MIN_PAYLOAD_SIZE + keyBytes.length + (valueBytes == null ? 0 : valueBytes.length);
+            if (length > MAX_PAYLOAD_SIZE) {
+                throw new IllegalArgumentException("会话数据过大：" + key);
+            }
+            int recordSize = RECORD_HEADER_SIZE + length;
+            if (buffer.remaining() < recordSize) {
+                flush();
+                if (buffer.capacity() < recordSize) {
+                    buffer = ByteBuffer.allocateDirect(recordSize);
+                }
+            }
+            int start = buffer.position();
+            buffer.putInt(length).putInt(0)
+                    .put(op).putLong(expireAt)
+                    .putInt(keyBytes.length).put(keyBytes)
+                    .putInt(valueBytes == null ? -1 : valueBytes.length);
+            if (valueBytes != null) {
+                buffer.put(valueBytes);
+            }
+            crc.reset();
+            crc.update(buffer.slice(start + RECORD_HEADER_SIZE, length));
+            buffer.putInt(start + 4, (int) crc.getValue());
+        }
+
+        /**
+         * 把缓冲区写入文件（操作系统页缓存），进程崩溃不丢失，宕机仍可能丢失未 {@link #force()} 的部分
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                committed = channel.position();
+            } catch (IOException e) {
+                try {
+                    channel.truncate(committed);
+                    channel.position(committed);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        /**
+         * 把已写出的数据刷到磁盘
+         */
+        void force() throws IOException {
+            channel.force(false);
+        }
+
+        /**
+         * 已写入文件的字节数，不含缓冲区中的数据
+         */
+        long size() {
+            return committed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                force();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.guducat.backend.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 账号相关的工具方法
+ */
+public final class AccountUtils {
+
+    // 分解后的附加符号（重音等）
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private AccountUtils() {
+    }
+
+    /**
+     * 把用户名折叠为与数据库排序规则（utf8mb4_unicode_ci）等价判断一致或更宽松的形式：
+     * 去除首尾空白、去除重音符号并忽略大小写（含 ß → ss 这类大小写展开）。
+     * <p>
+     * 用于布隆过滤器等只能精确匹配的场景：数据库认为相同的用户名折叠后一定相同，不会漏判；
+     * 折叠得更宽松只会多一次数据库确认。入库的用户名本身不做修改。
+     * </p>
+     *
+     * @param username 用户名
+     * @return 折叠后的用户名，为null时返回null
+     */
+    public static String foldUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(username.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 规范化邮箱：去除首尾空白并转为小写。
+     * <p>
+     * 邮箱在入库和查询时都使用规范化后的值，保证可以直接命中 email 列上的唯一索引。
+     * </p>
+     *
+     * @param email 原始邮箱
+     * @return 规范化后的邮箱，为空时返回null
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String trimmed = email.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 判断账号是否为邮箱格式（包含 @）
+     */
+    public static boolean isEmail(String account) {
+        return account != null && account.indexOf('@') >= 0;
+    }
+}
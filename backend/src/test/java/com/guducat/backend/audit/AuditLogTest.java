@@ -0,0 +1,127 @@
+package com.guducat.backend.audit;
+
+import com.guducat.backend.entity.LoginAudit;
+import com.guducat.backend.mapper.LoginAuditMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AuditLogTest {
+
+    private final LoginAuditMapper mapper = mock(LoginAuditMapper.class);
+
+    // 每次 INSERT 的行数，写入线程会复用批次列表，这里只记录大小
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    @Test
+    void testWritesInBatchesAndFlushesOnStop() {
+        // 准备测试数据：启动前记录 7 条，刷新间隔足够长，不满一批的只在关闭时写入
+        auditLog = new AuditLog(mapper, 1024, 3, 60_000, "drop");
+        recordSizes();
+        for (int i = 0; i < 7; i++) {
+            auditLog.record("login", false, null, "user" + i);
+        }
+
+        // 执行测试
+        auditLog.start();
+        verify(mapper, timeout(2000).times(2)).insertBatch(anyList());
+        auditLog.stop();
+
+        // 验证结果
+        assertEquals(List.of(3, 3, 1), batchSizes);
+        assertEquals(7, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getPendingCount());
+    }
+
+    @Test
+    void testFlushesAfterInterval() {
+        // 准备测试数据
+        auditLog = new AuditLog(mapper, 1024, 100, 200, "drop");
+        recordSizes();
+        auditLog.start();
+
+        // 执行测试
+        auditLog.record("login", true, 1L, "alice");
+        auditLog.record("register", true, 2L, "bob");
+
+        // 验证结果：未满一批，等待刷新间隔后写入；写入计数在 INSERT 返回后才增加
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (auditLog.getWrittenCount() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(List.of(2), batchSizes);
+    }
+
+    @Test
+    void testDropWhenFull() {
+        // 准备测试数据：未启动写入线程，容量 2
+        auditLog = new AuditLog(mapper, 2, 10, 200, "drop");
+
+        // 执行测试
+        for (int i = 0; i < 3; i++) {
+            auditLog.record("login", false, null, "user" + i);
+        }
+
+        // 验证结果
+        assertEquals(3, auditLog.getRecordedCount());
+        assertEquals(1, auditLog.getDroppedCount());
+        assertEquals(2, auditLog.getPendingCount());
+    }
+
+    @Test
+    void testBlockWhenFull() throws Exception {
+        // 准备测试数据：第一次写入阻塞，直到测试放行
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ((List<?>) invocation.getArgument(0)).size();
+        });
+        auditLog = new AuditLog(mapper, 2, 1, 200, "block");
+        auditLog.start();
+        auditLog.record("login", false, null, "user0");
+        assertTrue(entered.await(2, TimeUnit.SECONDS));
+
+        // 执行测试：写入线程被阻塞时填满缓冲区，再记录一条
+        auditLog.record("login", false, null, "user1");
+        auditLog.record("login", false, null, "user2");
+        Thread producer = new Thread(() -> auditLog.record("login", false, null, "user3"));
+        producer.start();
+        producer.join(200);
+
+        // 验证结果：记录线程等待，放行后全部写入，没有丢弃
+        assertTrue(producer.isAlive());
+        release.countDown();
+        producer.join(2000);
+        assertFalse(producer.isAlive());
+        auditLog.stop();
+        assertEquals(4, auditLog.getWrittenCount());
+        assertEquals(0, auditLog.getDroppedCount());
+    }
+
+    private void recordSizes() {
+        when(mapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<LoginAudit> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.size();
+        });
+    }
+}
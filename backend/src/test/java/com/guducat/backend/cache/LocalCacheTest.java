@@ -0,0 +1,186 @@
+package com.guducat.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private LocalCache<Long, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LocalCache<>("test", 2, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // 执行测试
+        String first = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return "admin";
+        });
+        String second = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return "admin";
+        });
+
+        // 验证结果
+        assertEquals("admin", first);
+        assertEquals("admin", second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testGet_ExpiredAfterTtl() {
+        cache.put(1L, "user");
+
+        // 未到期
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("user", cache.get(1L));
+
+        // 到期后失效
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        // 访问 1，使 2 成为最久未访问的条目
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        // 验证结果
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("c", cache.get(3L));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testGet_NullValueNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        // 验证结果
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.put(1L, "admin");
+
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // 执行测试：第一个线程的加载被阻塞，期间其他线程同时未命中
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get(1L, id -> {
+                    loads.incrementAndGet();
+                    loaderStarted.countDown();
+                    try {
+                        releaseLoader.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "admin";
+                })));
+            }
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            releaseLoader.countDown();
+
+            // 验证结果：所有线程得到同一结果，只加载了一次
+            for (Future<String> result : results) {
+                assertEquals("admin", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, cache.getLoadCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGet_InvalidatedDuringLoadNotCached() {
+        // 执行测试：加载过程中键被失效（模拟并发的写操作）
+        String value = cache.get(1L, id -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        // 验证结果：本次调用仍返回加载结果，但不写入缓存
+        assertEquals("stale", value);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPutIfNotInvalidatedSince() {
+        // 准备测试数据：在缓存外读取数据之前取失效戳
+        long stamp = cache.invalidationStamp();
+
+        // 执行测试：读取期间发生失效（模拟并发的写操作）
+        cache.invalidate(2L);
+        boolean staleWritten = cache.putIfNotInvalidatedSince(1L, "stale", stamp);
+        boolean freshWritten = cache.putIfNotInvalidatedSince(1L, "fresh", cache.invalidationStamp());
+
+        // 验证结果：旧数据不写入，重新取戳后可以写入
+        assertFalse(staleWritten);
+        assertTrue(freshWritten);
+        assertEquals("fresh", cache.get(1L));
+    }
+
+    @Test
+    void testGet_LoaderFailurePropagated() {
+        // 执行测试
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, id -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        // 验证结果：失败不影响后续加载
+        assertEquals("admin", cache.get(1L, id -> "admin"));
+        assertEquals(1, cache.getLoadFailureCount());
+        assertEquals(1, cache.snapshot().loadCount());
+    }
+}
@@ -3,7 +3,9 @@ package com.guducat.backend.controller;
 import cn.dev33.satoken.stp.SaTokenInfo;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaResult;
-import com.guducat.backend.entity.User;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.service.AccountAvailabilityService;
+import com.guducat.backend.service.ProfileUpdateResult;
 import com.guducat.backend.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,8 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -21,6 +25,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private AccountAvailabilityService accountAvailabilityService;
+
     @InjectMocks
     private UserController userController;
 
@@ -86,8 +93,7 @@ class UserControllerTest {
         mockTokenInfo.setTokenValue("test-token-value");
         
         // 设置模拟行为
-        when(userService.register(username, nickname, email, avatarUrl, password)).thenReturn(true);
-        when(userService.login(username, password)).thenReturn(true);
+        when(userService.register(username, nickname, email, avatarUrl, password)).thenReturn(1L);
         
         try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
             stpUtilMockedStatic.when(StpUtil::getTokenInfo).thenReturn(mockTokenInfo);
@@ -99,7 +105,9 @@ class UserControllerTest {
             assertEquals(200, result.getCode());
             assertEquals(mockTokenInfo, result.getData());
             verify(userService, times(1)).register(username, nickname, email, avatarUrl, password);
-            verify(userService, times(1)).login(username, password);
+            // 直接以新用户ID登录，不再重复校验密码
+            stpUtilMockedStatic.verify(() -> StpUtil.login(1L));
+            verify(userService, never()).login(anyString(), anyString());
         }
     }
     
@@ -134,7 +142,7 @@ class UserControllerTest {
         String confirmPassword = "password123";
         
         // 设置模拟行为
-        when(userService.register(username, nickname, email, avatarUrl, password)).thenReturn(false);
+        when(userService.register(username, nickname, email, avatarUrl, password)).thenReturn(null);
         
         // 执行测试
         SaResult result = userController.doRegister(username, nickname, email, avatarUrl, password, confirmPassword);
@@ -150,32 +158,27 @@ class UserControllerTest {
     void testGetInfo_Success() {
         // 准备测试数据
         Long userId = 1L;
-        User mockUser = new User();
-        mockUser.setId(userId);
-        mockUser.setUsername("testuser");
-        mockUser.setNickname("Test User");
-        mockUser.setEmail("test@example.com");
-        mockUser.setAvatarUrl("https://example.com/avatar.jpg");
-        mockUser.setPassword("hashedpassword");
+        UserProfile profile = new UserProfile(userId, "testuser", "Test User", "test@example.com",
+                "https://example.com/avatar.jpg", "user", 3);
         
         // 设置模拟行为
         try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
             stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(userId);
-            when(userService.getUserById(userId)).thenReturn(mockUser);
+            when(userService.getUserProfile(userId)).thenReturn(profile);
             
             // 执行测试
             SaResult result = userController.getInfo();
             
             // 验证结果
             assertEquals(200, result.getCode());
-            User returnedUser = (User) result.getData();
-            assertEquals(userId, returnedUser.getId());
-            assertEquals("testuser", returnedUser.getUsername());
-            assertEquals("Test User", returnedUser.getNickname());
-            assertEquals("test@example.com", returnedUser.getEmail());
-            assertEquals("https://example.com/avatar.jpg", returnedUser.getAvatarUrl());
-            assertNull(returnedUser.getPassword()); // 确保密码被清除
-            verify(userService, times(1)).getUserById(userId);
+            UserProfile returned = (UserProfile) result.getData();
+            assertEquals(userId, returned.id());
+            assertEquals("testuser", returned.username());
+            assertEquals("Test User", returned.nickname());
+            assertEquals("test@example.com", returned.email());
+            assertEquals("https://example.com/avatar.jpg", returned.avatarUrl());
+            assertEquals(3, returned.version());
+            verify(userService, times(1)).getUserProfile(userId);
         }
     }
     
@@ -191,7 +194,7 @@ class UserControllerTest {
             // 验证结果
             assertEquals(500, result.getCode());
             assertEquals("用户未登录", result.getMsg());
-            verify(userService, never()).getUserById(anyLong());
+            verify(userService, never()).getUserProfile(anyLong());
         }
     }
     
@@ -203,7 +206,7 @@ class UserControllerTest {
         // 设置模拟行为
         try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
             stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(userId);
-            when(userService.getUserById(userId)).thenReturn(null);
+            when(userService.getUserProfile(userId)).thenReturn(null);
             
             // 执行测试
             SaResult result = userController.getInfo();
@@ -211,7 +214,7 @@ class UserControllerTest {
             // 验证结果
             assertEquals(500, result.getCode());
             assertEquals("用户信息不存在", result.getMsg());
-            verify(userService, times(1)).getUserById(userId);
+            verify(userService, times(1)).getUserProfile(userId);
         }
     }
     
@@ -226,15 +229,15 @@ class UserControllerTest {
         // 设置模拟行为
         try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
             stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(userId);
-            when(userService.updateUserInfo(userId, nickname, email, avatarUrl)).thenReturn(true);
+            when(userService.updateUserInfo(userId, nickname, email, avatarUrl, null)).thenReturn(ProfileUpdateResult.UPDATED);
             
             // 执行测试
-            SaResult result = userController.updateInfo(nickname, email, avatarUrl);
+            SaResult result = userController.updateInfo(nickname, email, avatarUrl, null);
             
             // 验证结果
             assertEquals(200, result.getCode());
             assertEquals("用户信息更新成功", result.getMsg());
-            verify(userService, times(1)).updateUserInfo(userId, nickname, email, avatarUrl);
+            verify(userService, times(1)).updateUserInfo(userId, nickname, email, avatarUrl, null);
         }
     }
     
@@ -250,12 +253,12 @@ class UserControllerTest {
             stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(-1);
             
             // 执行测试
-            SaResult result = userController.updateInfo(nickname, email, avatarUrl);
+            SaResult result = userController.updateInfo(nickname, email, avatarUrl, null);
             
             // 验证结果
             assertEquals(500, result.getCode());
             assertEquals("用户未登录", result.getMsg());
-            verify(userService, never()).updateUserInfo(anyLong(), anyString(), anyString(), anyString());
+            verify(userService, never()).updateUserInfo(anyLong(), anyString(), anyString(), anyString(), any());
         }
     }
     
@@ -270,15 +273,62 @@ class UserControllerTest {
         // 设置模拟行为
         try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
             stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(userId);
-            when(userService.updateUserInfo(userId, nickname, email, avatarUrl)).thenReturn(false);
+            when(userService.updateUserInfo(userId, nickname, email, avatarUrl, null)).thenReturn(ProfileUpdateResult.EMAIL_TAKEN);
             
             // 执行测试
-            SaResult result = userController.updateInfo(nickname, email, avatarUrl);
+            SaResult result = userController.updateInfo(nickname, email, avatarUrl, null);
             
             // 验证结果
             assertEquals(500, result.getCode());
-            assertEquals("用户信息更新失败，邮箱可能已被使用", result.getMsg());
-            verify(userService, times(1)).updateUserInfo(userId, nickname, email, avatarUrl);
+            assertEquals("用户信息更新失败，邮箱已被使用", result.getMsg());
+            verify(userService, times(1)).updateUserInfo(userId, nickname, email, avatarUrl, null);
+        }
+    }
+
+    @Test
+    void testUpdateInfo_VersionConflict() {
+        // 准备测试数据
+        Long userId = 1L;
+        String nickname = "Updated Nickname";
+        Integer version = 3;
+
+        // 设置模拟行为
+        try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
+            stpUtilMockedStatic.when(() -> StpUtil.getLoginId(-1)).thenReturn(userId);
+            when(userService.updateUserInfo(userId, nickname, null, null, version)).thenReturn(ProfileUpdateResult.VERSION_CONFLICT);
+
+            // 执行测试
+            SaResult result = userController.updateInfo(nickname, null, null, version);
+
+            // 验证结果
+            assertEquals(500, result.getCode());
+            assertEquals("用户信息已被修改，请刷新后重试", result.getMsg());
         }
     }
+
+    @Test
+    void testCheckAvailable() {
+        // 设置模拟行为
+        when(accountAvailabilityService.isUsernameAvailable("newuser")).thenReturn(true);
+        when(accountAvailabilityService.isEmailAvailable("taken@example.com")).thenReturn(false);
+
+        // 执行测试
+        SaResult result = userController.checkAvailable("newuser", "taken@example.com");
+
+        // 验证结果
+        assertEquals(200, result.getCode());
+        Map<?, ?> data = (Map<?, ?>) result.getData();
+        assertEquals(true, data.get("username"));
+        assertEquals(false, data.get("email"));
+    }
+
+    @Test
+    void testCheckAvailable_EmptyParams() {
+        // 执行测试
+        SaResult result = userController.checkAvailable(null, "");
+
+        // 验证结果
+        assertEquals(500, result.getCode());
+        verifyNoInteractions(accountAvailabilityService);
+    }
 }
@@ -0,0 +1,143 @@
+package com.guducat.backend.integration;
+
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.stp.StpUtil;
+import com.baomidou.dynamic.datasource.DynamicRoutingDataSource;
+import com.guducat.backend.cache.ClusterCacheInvalidator;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
+import com.guducat.backend.service.ProfileUpdateResult;
+import com.guducat.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 读写分离集成测试
+ * <p>
+ * test 配置中主库与副本是两个独立的 H2 内存数据库，之间没有复制，因此可以从读到的数据判断读取走了哪个库。
+ * 不使用 @Transactional：事务内的读取会复用事务连接，不经过数据源路由。
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ReadWriteSplittingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private LocalCache<String, Boolean> recentWriteCache;
+
+    @Autowired
+    private List<LocalCache<?, ?>> caches;
+
+    @Autowired
+    private LocalCache<Long, String> roleCache;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        DynamicRoutingDataSource routing = (DynamicRoutingDataSource) dataSource;
+        primary = new JdbcTemplate(routing.getDataSource("mysql"));
+        replica = new JdbcTemplate(routing.getDataSource("replica_1"));
+        SaTokenContextMockUtil.setMockContext();
+
+        // 副本中只有一个主库不存在的用户
+        replica.update("INSERT INTO user (id, username, password, nickname, role) VALUES (1000, 'replicaonly', 'x', 'Replica Only', 'user')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SaTokenContextMockUtil.clearContext();
+        primary.update("DELETE FROM user");
+        replica.update("DELETE FROM user");
+        caches.forEach(LocalCache::invalidateAll);
+    }
+
+    @Test
+    void testReadsGoToReplica() {
+        // 验证读方法从副本读取
+        UserProfile profile = userService.getUserProfile(1000L);
+        assertNotNull(profile);
+        assertEquals("replicaonly", profile.username());
+        assertEquals("user", userService.getUserRole(1000L));
+
+        List<UserSummary> users = userService.listUsers(null, null, null, null).items();
+        assertEquals(List.of("replicaonly"), users.stream().map(UserSummary::username).toList());
+    }
+
+    @Test
+    void testReadYourWritesAfterRegister() {
+        // 1. 注册写入主库
+        Long id = userService.register("rwuser", "RW User", null, null, "testpassword");
+        assertNotNull(id);
+
+        // 验证写入后的窗口内，读取该用户走主库
+        UserProfile profile = userService.getUserProfile(id);
+        assertNotNull(profile);
+        assertEquals("rwuser", profile.username());
+
+        // 2. 窗口结束后的新请求读取回到副本，副本中没有该用户
+        recentWriteCache.invalidateAll();
+        caches.forEach(LocalCache::invalidateAll);
+        SaTokenContextMockUtil.clearContext();
+        SaTokenContextMockUtil.setMockContext();
+        assertNull(userService.getUserProfile(id));
+    }
+
+    @Test
+    void testRemoteInvalidationReloadsFromPrimary() {
+        // 准备测试数据：另一个节点已把用户 1000 降级，副本尚未同步，本节点缓存着旧角色
+        primary.update("INSERT INTO user (id, username, password, nickname, role) VALUES (1000, 'replicaonly', 'x', 'Replica Only', 'user')");
+        replica.update("UPDATE user SET role = 'admin' WHERE id = 1000");
+        assertEquals("admin", userService.getUserRole(1000L));
+        ClusterCacheInvalidator invalidator = new ClusterCacheInvalidator(message -> {
+        });
+        invalidator.register(roleCache, Long::valueOf, readYourWrites::recordRemoteWrite);
+
+        // 执行测试：收到另一个节点广播的角色失效
+        invalidator.onMessage("cache:role:1000");
+
+        // 验证结果：重新加载走主库，不会把副本上的旧角色缓存下来
+        assertEquals("user", userService.getUserRole(1000L));
+    }
+
+    @Test
+    void testReadYourWritesForSession() {
+        // 1. 以操作者身份登录，并修改另一个用户
+        Long id = userService.register("rwtarget", "RW Target", null, null, "testpassword");
+        recentWriteCache.invalidateAll();
+        StpUtil.login(42L);
+        assertEquals(ProfileUpdateResult.UPDATED, userService.updateUserInfo(id, "Updated", null, null, null));
+
+        // 验证该会话的读取都走主库，包括与被修改用户无关的列表查询
+        List<UserSummary> users = userService.listUsers(null, null, null, null).items();
+        assertEquals(List.of("rwtarget"), users.stream().map(UserSummary::username).toList());
+
+        // 2. 其他会话不受影响，仍读取副本
+        StpUtil.logout();
+        users = userService.listUsers(null, null, null, null).items();
+        assertEquals(List.of("replicaonly"), users.stream().map(UserSummary::username).toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.guducat.backend.integration;
+
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.SessionSummary;
+import com.guducat.backend.session.SessionIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在线会话索引集成测试，使用 Sa-Token 的默认内存存储
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SessionIndexTest {
+
+    // 分页测试使用的用户ID，位于ID范围末尾，不受其他测试类遗留的登录影响
+    private static final long USER_A = Long.MAX_VALUE - 2;
+
+    private static final long USER_B = Long.MAX_VALUE - 1;
+
+    private static final long USER_C = Long.MAX_VALUE;
+
+    @Autowired
+    private SessionIndex sessionIndex;
+
+    @BeforeEach
+    void setUp() {
+        SaTokenContextMockUtil.setMockContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        StpUtil.kickout(1L);
+        StpUtil.kickout(USER_A);
+        StpUtil.kickout(USER_B);
+        StpUtil.kickout(USER_C);
+        sessionIndex.purgeStale();
+        SaTokenContextMockUtil.clearContext();
+    }
+
+    @Test
+    void testListAndRevokeSessions() {
+        // 准备测试数据：同一账号登录两次
+        StpUtil.login(1L, "PC");
+        StpUtil.login(1L, "APP");
+        String appToken = StpUtil.getTokenValue();
+
+        // 验证结果：会话标识不暴露 token
+        List<SessionSummary> sessions = sessionIndex.listSessions(1L);
+        assertEquals(List.of("PC", "APP"), sessions.stream().map(SessionSummary::deviceType).toList());
+        assertTrue(sessions.stream().noneMatch(s -> s.sessionId().equals(appToken)));
+
+        // 执行测试：注销 APP 端的会话
+        assertTrue(sessionIndex.revoke(1L, sessions.get(1).sessionId()));
+        assertFalse(sessionIndex.revoke(1L, "missing"));
+
+        // 验证结果
+        assertNull(StpUtil.getLoginIdByToken(appToken));
+        assertEquals(List.of("PC"), sessionIndex.listSessions(1L).stream().map(SessionSummary::deviceType).toList());
+    }
+
+    @Test
+    void testRevokeAllRemovesUserFromIndex() {
+        // 准备测试数据
+        StpUtil.login(1L);
+        StpUtil.login(1L);
+        int usersBefore = sessionIndex.getUserCount();
+
+        // 执行测试
+        assertEquals(2, sessionIndex.revokeAll(1L));
+
+        // 验证结果：最后一个会话注销后用户移出索引
+        assertTrue(sessionIndex.listSessions(1L).isEmpty());
+        assertEquals(usersBefore - 1, sessionIndex.getUserCount());
+    }
+
+    @Test
+    void testTokenCountRefreshedOnPurge() {
+        // 准备测试数据
+        sessionIndex.purgeStale();
+        long tokensBefore = sessionIndex.getTokenCount();
+        StpUtil.login(1L, "PC");
+        StpUtil.login(1L, "APP");
+
+        // 执行测试
+        sessionIndex.purgeStale();
+
+        // 验证结果：清理时重新统计有效 token 数
+        assertEquals(tokensBefore + 2, sessionIndex.getTokenCount());
+    }
+
+    @Test
+    void testPageAllSessionsByUser() {
+        // 准备测试数据
+        StpUtil.login(USER_A);
+        StpUtil.login(USER_B);
+        StpUtil.login(USER_B);
+        StpUtil.login(USER_C);
+
+        // 执行测试：每页一个用户
+        CursorPage<SessionSummary> first = sessionIndex.listAllSessions(USER_A - 1, 1);
+        CursorPage<SessionSummary> second = sessionIndex.listAllSessions(first.nextAfter(), 1);
+        CursorPage<SessionSummary> third = sessionIndex.listAllSessions(second.nextAfter(), 1);
+
+        // 验证结果：同一用户的会话在同一页
+        assertEquals(List.of(USER_A), first.items().stream().map(SessionSummary::userId).toList());
+        assertEquals(List.of(USER_B, USER_B), second.items().stream().map(SessionSummary::userId).toList());
+        assertEquals(List.of(USER_C), third.items().stream().map(SessionSummary::userId).toList());
+        assertTrue(second.hasMore());
+        assertFalse(third.hasMore());
+    }
+
+    @Test
+    void testOldestTokenEvictedAtMaxLoginCount() {
+        // 准备测试数据：超出 max-login-count 登录
+        int max = StpUtil.getStpLogic().getConfigOrGlobal().getMaxLoginCount();
+        StpUtil.login(1L, "first");
+        for (int i = 0; i < max; i++) {
+            StpUtil.login(1L, "next");
+        }
+
+        // 验证结果：最早的会话被注销，会话数不超过上限
+        List<SessionSummary> sessions = sessionIndex.listSessions(1L);
+        assertEquals(max, sessions.size());
+        assertTrue(sessions.stream().noneMatch(s -> s.deviceType().equals("first")));
+    }
+}
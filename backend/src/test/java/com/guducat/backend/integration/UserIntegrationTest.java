@@ -1,15 +1,35 @@
 package com.guducat.backend.integration;
 
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
+import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaResult;
+import com.guducat.backend.audit.AuditLog;
 import com.guducat.backend.controller.UserController;
-import com.guducat.backend.entity.User;
+import com.guducat.backend.entity.BulkOperationResult;
+import com.guducat.backend.entity.BulkUserRequest;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
+import com.guducat.backend.metrics.AuthMetrics;
+import com.guducat.backend.metrics.MapperMetricsInterceptor;
+import com.guducat.backend.service.RequestUserContext;
+import com.guducat.backend.service.UserExporter;
 import com.guducat.backend.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -27,6 +47,29 @@ public class UserIntegrationTest {
     
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private UserExporter userExporter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // 直接调用控制器时没有经过 Sa-Token 过滤器，需要手动提供一个模拟的请求上下文
+        SaTokenContextMockUtil.setMockContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SaTokenContextMockUtil.clearContext();
+    }
     
     @Test
     void testRegisterAndLoginFlow() {
@@ -64,33 +107,36 @@ public class UserIntegrationTest {
         
         // 验证获取用户信息成功
         assertEquals(200, userInfoResult.getCode());
-        User userInfo = (User) userInfoResult.getData();
-        assertEquals(username, userInfo.getUsername());
-        assertEquals(nickname, userInfo.getNickname());
-        assertEquals(email, userInfo.getEmail());
-        assertEquals(avatarUrl, userInfo.getAvatarUrl());
-        assertNull(userInfo.getPassword()); // 确保密码被清除
+        UserProfile userInfo = (UserProfile) userInfoResult.getData();
+        assertEquals(username, userInfo.username());
+        assertEquals(nickname, userInfo.nickname());
+        assertEquals(email, userInfo.email());
+        assertEquals(avatarUrl, userInfo.avatarUrl());
         
         // 5. 更新用户信息
         String newNickname = "Updated Integration Test";
         String newEmail = "updated.integration@test.com";
         String newAvatarUrl = "https://example.com/updated-avatar.jpg";
         
-        SaResult updateResult = userController.updateInfo(newNickname, newEmail, newAvatarUrl);
+        SaResult updateResult = userController.updateInfo(newNickname, newEmail, newAvatarUrl, userInfo.version());
         
         // 验证更新成功
         assertEquals(200, updateResult.getCode());
+
+        // 使用过期的版本号再次更新会被拒绝
+        SaResult staleResult = userController.updateInfo("Stale Nickname", null, null, userInfo.version());
+        assertEquals(500, staleResult.getCode());
         
         // 6. 再次获取用户信息，验证更新是否生效
         SaResult updatedUserInfoResult = userController.getInfo();
         
         // 验证获取更新后的用户信息成功
         assertEquals(200, updatedUserInfoResult.getCode());
-        User updatedUserInfo = (User) updatedUserInfoResult.getData();
-        assertEquals(username, updatedUserInfo.getUsername()); // 用户名不变
-        assertEquals(newNickname, updatedUserInfo.getNickname());
-        assertEquals(newEmail, updatedUserInfo.getEmail());
-        assertEquals(newAvatarUrl, updatedUserInfo.getAvatarUrl());
+        UserProfile updatedUserInfo = (UserProfile) updatedUserInfoResult.getData();
+        assertEquals(username, updatedUserInfo.username()); // 用户名不变
+        assertEquals(newNickname, updatedUserInfo.nickname());
+        assertEquals(newEmail, updatedUserInfo.email());
+        assertEquals(newAvatarUrl, updatedUserInfo.avatarUrl());
     }
     
     @Test
@@ -174,4 +220,164 @@ public class UserIntegrationTest {
         assertEquals(500, loginResult.getCode());
         assertTrue(loginResult.getMsg().contains("登录失败"));
     }
+
+    @Test
+    void testRegisterWithExistingEmailDifferentCase() {
+        // 1. 注册第一个用户
+        String password = "testpassword";
+        SaResult firstRegisterResult = userController.doRegister(
+            "caseuser1", "Case User 1", "case@test.com", null, password, password
+        );
+        assertEquals(200, firstRegisterResult.getCode());
+
+        // 2. 使用大小写不同的同一邮箱注册，由唯一索引拒绝
+        SaResult secondRegisterResult = userController.doRegister(
+            "caseuser2", "Case User 2", " Case@Test.com", null, password, password
+        );
+        assertEquals(500, secondRegisterResult.getCode());
+        assertTrue(secondRegisterResult.getMsg().contains("注册失败"));
+    }
+
+    @Test
+    void testListUsersByCursor() {
+        // 1. 注册三个用户，其中一个用户名包含下划线
+        String password = "testpassword";
+        userService.register("page_a", "Page A", "page_a@test.com", null, password);
+        userService.register("page_b", "Page B", "page_b@test.com", null, password);
+        userService.register("pagexc", "Page C", "pagexc@test.com", null, password);
+
+        // 2. 按前缀分页，每页 1 条；下划线按字面匹配，不匹配 pagexc
+        CursorPage<UserSummary> first = userService.listUsers(null, 1, null, "page_");
+        assertEquals(1, first.items().size());
+        assertEquals("page_a", first.items().get(0).username());
+        assertTrue(first.hasMore());
+
+        CursorPage<UserSummary> second = userService.listUsers(first.nextAfter(), 1, null, "page_");
+        assertEquals(1, second.items().size());
+        assertEquals("page_b", second.items().get(0).username());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void testExportUsers() throws IOException {
+        // 1. 注册两个用户，其中一个昵称包含逗号和引号
+        String password = "testpassword";
+        userService.register("export1", "Export, \"One\"", "export1@test.com", null, password);
+        userService.register("export2", "Export Two", null, null, password);
+
+        // 2. 导出 CSV
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long csvRows = userExporter.export(UserExporter.Format.CSV, csv);
+        String csvText = csv.toString(StandardCharsets.UTF_8);
+        assertEquals(2, csvRows);
+        assertTrue(csvText.startsWith("id,username,nickname,email,role\r\n"));
+        assertTrue(csvText.contains(",export1,\"Export, \"\"One\"\"\",export1@test.com,user\r\n"));
+        assertTrue(csvText.contains(",export2,Export Two,,user\r\n"));
+
+        // 3. 导出 NDJSON，每行一个对象，不包含密码
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        long ndjsonRows = userExporter.export(UserExporter.Format.NDJSON, ndjson);
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, ndjsonRows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"username\":\"export1\""));
+        assertFalse(lines[0].contains("password"));
+    }
+
+    @Test
+    void testExportUsersEscapesFormulas() throws IOException {
+        // 1. 注册昵称以公式字符开头的用户
+        String password = "testpassword";
+        userService.register("formula1", "=HYPERLINK(\"http://evil\",\"x\")", null, null, password);
+        userService.register("formula2", "@SUM(A1)", null, null, password);
+        userService.register("formula3", "-1+2", null, null, password);
+
+        // 2. 导出 CSV
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        userExporter.export(UserExporter.Format.CSV, csv);
+        String csvText = csv.toString(StandardCharsets.UTF_8);
+
+        // 3. 字段前加单引号，电子表格按文本显示
+        assertTrue(csvText.contains(",formula1,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",,user\r\n"));
+        assertTrue(csvText.contains(",formula2,'@SUM(A1),,user\r\n"));
+        assertTrue(csvText.contains(",formula3,'-1+2,,user\r\n"));
+    }
+
+    @Test
+    void testBulkDeleteLogsOutUsers() {
+        // 1. 注册两个用户并登录
+        String password = "testpassword";
+        Long first = userService.register("bulk1", "Bulk 1", null, null, password);
+        Long second = userService.register("bulk2", "Bulk 2", null, null, password);
+        assertTrue(userService.login("bulk1", password));
+        assertTrue(StpUtil.isLogin(first));
+
+        // 2. 按前缀批量删除
+        BulkUserRequest request = new BulkUserRequest();
+        request.setUsernamePrefix("bulk");
+        BulkOperationResult result = userService.bulkDelete(request, -1L);
+
+        // 验证用户被删除，会话被注销
+        assertEquals(2, result.affected());
+        assertNull(userService.getById(first));
+        assertNull(userService.getById(second));
+        assertFalse(StpUtil.isLogin(first));
+    }
+
+    @Test
+    void testUserLoadedOncePerRequest() {
+        // 1. 注册并自动登录
+        String password = "testpassword";
+        SaResult registerResult = userController.doRegister(
+            "contextuser", "Context User", "context@test.com", null, password, password
+        );
+        assertEquals(200, registerResult.getCode());
+        int loadsBefore = RequestUserContext.getLoadCount();
+
+        // 2. 同一请求内：角色校验 + 两次获取用户信息
+        assertTrue(StpUtil.hasRole("user"));
+        assertEquals(200, userController.getInfo().getCode());
+        assertEquals(200, userController.getInfo().getCode());
+
+        // 验证只查询了一次数据库
+        assertEquals(1, RequestUserContext.getLoadCount() - loadsBefore);
+    }
+
+    @Test
+    void testMetricsRecorded() {
+        // 1. 注册并登录
+        String password = "testpassword";
+        userService.register("metricsuser", "Metrics User", null, null, password);
+        assertTrue(userService.login("metricsuser", password));
+
+        // 验证认证操作与 Mapper 语句都有计时
+        assertTrue(meterRegistry.get(AuthMetrics.OPERATION_TIMER)
+                .tags("operation", "login", "outcome", "success").timer().count() > 0);
+        assertTrue(meterRegistry.get(MapperMetricsInterceptor.STATEMENT_TIMER)
+                .tags("statement", "UserMapper.findLoginAccount", "command", "SELECT").timer().count() > 0);
+
+        // 验证会话、缓存与后台任务指标已注册
+        assertTrue(meterRegistry.get("satoken.sessions").gauge().value() >= 1);
+        assertNotNull(meterRegistry.get("cache.gets").tags("cache", "role", "result", "hit").functionCounter());
+        assertNotNull(meterRegistry.get("maintenance.job.runs").tags("job", "reset-token-expiry").functionCounter());
+    }
+
+    @Test
+    void testLoginAudited() throws InterruptedException {
+        // 1. 不存在的账号登录失败
+        assertFalse(userService.login("audit-unknown", "testpassword"));
+
+        // 2. 等待后台线程写入
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String sql = "SELECT COUNT(*) FROM login_audit WHERE event_type = 'login' AND success = 0 AND account = 'audit-unknown'";
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jdbcTemplate.queryForObject(sql, Integer.class) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // 验证审计记录已写入
+        assertEquals(1, jdbcTemplate.queryForObject(sql, Integer.class));
+        assertTrue(auditLog.getWrittenCount() > 0);
+        assertEquals(0, auditLog.getDroppedCount());
+    }
 }
@@ -0,0 +1,120 @@
+package com.guducat.backend.maintenance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaintenanceSchedulerTest {
+
+    private MaintenanceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new MaintenanceScheduler(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void testJobsScheduledOnStart() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        scheduler.register("counter", Duration.ZERO, Duration.ofMillis(10), Duration.ZERO, latch::countDown);
+
+        // 启动前不执行
+        Thread.sleep(50);
+        assertEquals(3, latch.getCount());
+
+        // 启动后按周期重复执行
+        scheduler.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(scheduler.isRunning());
+    }
+
+    @Test
+    void testFailureDoesNotStopJob() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        scheduler.register("failing", Duration.ZERO, Duration.ofMillis(10), Duration.ZERO, () -> {
+            latch.countDown();
+            throw new IllegalStateException("boom");
+        });
+
+        scheduler.start();
+
+        // 验证结果：失败后仍继续调度，并记录失败次数
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        MaintenanceJob.Stats stats = scheduler.getJobStats().get(0);
+        assertTrue(stats.failureCount() >= 1);
+    }
+
+    @Test
+    void testOverrunDetected() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.register("slow", Duration.ZERO, Duration.ofMillis(1), Duration.ZERO, () -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+
+        scheduler.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        // 验证结果：耗时超过周期记为 overrun
+        MaintenanceJob.Stats stats = scheduler.getJobStats().get(0);
+        assertTrue(stats.overrunCount() >= 1);
+        assertTrue(stats.maxDurationMillis() >= 20);
+    }
+
+    @Test
+    void testRegister_DuplicateName() {
+        scheduler.register("job", Duration.ofMinutes(1), () -> { });
+
+        assertThrows(IllegalStateException.class, () -> scheduler.register("job", Duration.ofMinutes(1), () -> { }));
+    }
+
+    @Test
+    void testStop_ShutsDownThreads() {
+        scheduler.start();
+        scheduler.stop();
+
+        assertFalse(scheduler.isRunning());
+    }
+
+    @Test
+    void testStop_WaitsForRunningJobWithoutInterrupt() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+        scheduler.register("sync", Duration.ZERO, Duration.ofMinutes(1), Duration.ZERO, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.set(true);
+        });
+        scheduler.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 执行测试
+        scheduler.stop();
+
+        // 验证结果：正在执行的任务不被中断，停止时已执行完
+        assertFalse(interrupted.get());
+        assertTrue(finished.get());
+    }
+}
@@ -0,0 +1,65 @@
+package com.guducat.backend.metrics;
+
+import cn.dev33.satoken.util.SaResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter(0, 1.0);
+
+    @Test
+    void testHeaderContainsRecordedPhases() throws Exception {
+        // 准备测试数据
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 执行测试：请求中执行两条语句和一次哈希
+        filter.doFilter(new MockHttpServletRequest("GET", "/user/getInfo"), response, (req, res) -> {
+            RequestTiming timing = RequestTiming.current();
+            timing.add(RequestTiming.Phase.DB, TimeUnit.MICROSECONDS.toNanos(1500));
+            timing.add(RequestTiming.Phase.DB, TimeUnit.MICROSECONDS.toNanos(250));
+            timing.add(RequestTiming.Phase.HASH, TimeUnit.MILLISECONDS.toNanos(98));
+        });
+
+        // 验证结果：只包含执行过的阶段，请求结束后解除绑定
+        String header = response.getHeader(RequestTiming.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("db;dur=1.750;desc=\"2\", hash;dur=98.000;desc=\"1\", total;dur="), header);
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void testNotTimedOutsideFilter() {
+        // 验证结果：未经过过滤器时埋点拿不到计时
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void testJsonResponseHeaderWrittenBeforeBody() throws Exception {
+        // 准备测试数据
+        TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 执行测试：转换器写出响应体后响应已提交
+        filter.doFilter(new MockHttpServletRequest("POST", "/user/doLogin"), response, (req, res) ->
+                converter.write(SaResult.ok("done"), MediaType.APPLICATION_JSON,
+                        new ServletServerHttpResponse((MockHttpServletResponse) res)));
+
+        // 验证结果：响应头只写入一次，包含序列化阶段，响应体完整
+        assertTrue(response.isCommitted());
+        List<String> headers = response.getHeaders(RequestTiming.HEADER);
+        assertEquals(1, headers.size());
+        assertTrue(headers.get(0).startsWith("ser;dur="), headers.get(0));
+        assertTrue(response.getContentAsString(StandardCharsets.UTF_8).contains("\"msg\":\"done\""));
+    }
+}
@@ -0,0 +1,45 @@
+package com.guducat.backend.security;
+
+import cn.dev33.satoken.secure.SaSecureUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    void testHashAndMatches() {
+        String hash = PasswordHasher.hash("password123", 1000);
+
+        // 验证结果：带算法前缀，且每次使用不同的盐
+        assertTrue(hash.startsWith("$pbkdf2-sha256$1000$"));
+        assertNotEquals(hash, PasswordHasher.hash("password123", 1000));
+        assertTrue(PasswordHasher.matches("password123", hash));
+        assertFalse(PasswordHasher.matches("wrongpassword", hash));
+    }
+
+    @Test
+    void testMatches_LegacySha256() {
+        String legacy = SaSecureUtil.sha256("admin");
+
+        assertTrue(PasswordHasher.isLegacy(legacy));
+        assertTrue(PasswordHasher.matches("admin", legacy));
+        assertFalse(PasswordHasher.matches("wrongpassword", legacy));
+    }
+
+    @Test
+    void testMatches_MalformedHash() {
+        assertFalse(PasswordHasher.matches("password123", "$pbkdf2-sha256$abc"));
+        assertFalse(PasswordHasher.matches("password123", "plaintext"));
+        assertFalse(PasswordHasher.matches(null, "plaintext"));
+    }
+
+    @Test
+    void testNeedsRehash() {
+        String hash = PasswordHasher.hash("password123", 1000);
+
+        assertTrue(PasswordHasher.needsRehash(SaSecureUtil.sha256("password123"), 1000));
+        assertFalse(PasswordHasher.needsRehash(hash, 1000));
+        assertTrue(PasswordHasher.needsRehash(hash, 2000));
+    }
+}
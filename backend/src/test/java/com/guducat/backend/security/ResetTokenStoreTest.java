@@ -0,0 +1,110 @@
+package com.guducat.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResetTokenStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private ResetTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ResetTokenStore(Duration.ofMinutes(30), 3, now::get);
+    }
+
+    @Test
+    void testIssueAndVerify() {
+        String token = store.issue(1L);
+
+        // 验证结果
+        assertTrue(store.verify(1L, token));
+        assertFalse(store.verify(1L, "wrong-token"));
+        assertFalse(store.verify(2L, token));
+        assertFalse(store.verify(1L, null));
+    }
+
+    @Test
+    void testVerify_Expired() {
+        String token = store.issue(1L);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(30));
+
+        // 验证结果：过期后即使尚未清理也校验失败
+        assertFalse(store.verify(1L, token));
+    }
+
+    @Test
+    void testIssue_ReplacesPreviousToken() {
+        String first = store.issue(1L);
+        String second = store.issue(1L);
+
+        // 验证结果
+        assertFalse(store.verify(1L, first));
+        assertTrue(store.verify(1L, second));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testPurgeExpired_OnlyExpiredEntries() {
+        store.issue(1L);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(20));
+        String fresh = store.issue(2L);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        // 执行测试
+        int purged = store.purgeExpired();
+
+        // 验证结果
+        assertEquals(1, purged);
+        assertEquals(1, store.size());
+        assertTrue(store.verify(2L, fresh));
+        assertEquals(1, store.getExpiredCount());
+    }
+
+    @Test
+    void testPurgeExpired_KeepsReissuedToken() {
+        store.issue(1L);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(20));
+        String reissued = store.issue(1L);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        // 执行测试：旧记录过期，但用户已重新签发令牌
+        int purged = store.purgeExpired();
+
+        // 验证结果
+        assertEquals(0, purged);
+        assertTrue(store.verify(1L, reissued));
+    }
+
+    @Test
+    void testIssue_EvictsOldestOverCapacity() {
+        String oldest = store.issue(1L);
+        store.issue(2L);
+        store.issue(3L);
+        String newest = store.issue(4L);
+
+        // 验证结果
+        assertEquals(3, store.size());
+        assertFalse(store.verify(1L, oldest));
+        assertTrue(store.verify(4L, newest));
+        assertEquals(1, store.getEvictedCount());
+    }
+
+    @Test
+    void testRemove() {
+        String token = store.issue(1L);
+
+        store.remove(1L);
+
+        assertFalse(store.verify(1L, token));
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.guducat.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteRuleTableTest {
+
+    private final RouteRuleTable table = RouteRuleTable.builder()
+            .login("/user/getInfo", "/user/updateInfo")
+            .role("admin", "/admin/**")
+            .role("auditor", "/admin/audit/**")
+            .login("/admin/public")
+            .build();
+
+    @Test
+    void testResolve_ExactPath() {
+        assertEquals(RouteRule.LOGIN, table.resolve("/user/getInfo"));
+        assertEquals(RouteRule.LOGIN, table.resolve("/user/updateInfo"));
+        // 未声明的路径不需要鉴权
+        assertEquals(RouteRule.NONE, table.resolve("/user/doLogin"));
+        assertEquals(RouteRule.NONE, table.resolve("/user/getInfo/extra"));
+        assertEquals(RouteRule.NONE, table.resolve("/"));
+    }
+
+    @Test
+    void testResolve_Wildcard() {
+        RouteRule admin = RouteRule.role("admin");
+
+        assertEquals(admin, table.resolve("/admin"));
+        assertEquals(admin, table.resolve("/admin/users"));
+        assertEquals(admin, table.resolve("/admin/users/42"));
+        assertEquals(RouteRule.NONE, table.resolve("/administrator"));
+    }
+
+    @Test
+    void testResolve_MergesOverlappingRules() {
+        // 嵌套的通配规则要求全部满足
+        RouteRule audit = table.resolve("/admin/audit/logs");
+        assertTrue(audit.requireLogin());
+        assertEquals(List.of("admin", "auditor"), audit.roles());
+
+        // 完整路径规则不会覆盖祖先的通配规则
+        assertEquals(RouteRule.role("admin"), table.resolve("/admin/public"));
+    }
+
+    @Test
+    void testResolve_IgnoresEmptySegments() {
+        assertEquals(RouteRule.LOGIN, table.resolve("//user//getInfo"));
+        assertEquals(RouteRule.LOGIN, table.resolve("/user/getInfo/"));
+        assertEquals(RouteRule.role("admin"), table.resolve("/admin//users"));
+    }
+
+    @Test
+    void testBuild_RejectsUnsupportedPattern() {
+        RouteRuleTable.Builder builder = RouteRuleTable.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.login("/user/*/info"));
+        assertThrows(IllegalArgumentException.class, () -> builder.login("/user/{id}"));
+    }
+
+    @Test
+    void testGetRuleCount() {
+        assertEquals(5, table.getRuleCount());
+    }
+}
@@ -0,0 +1,152 @@
+package com.guducat.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private SlidingWindowRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new SlidingWindowRateLimiter(3, Duration.ofMinutes(1), 1024, now::get);
+    }
+
+    @Test
+    void testLimitPerKey() {
+        // 执行测试
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+
+        // 验证结果：超限后拒绝，其他键不受影响
+        assertFalse(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("bob"));
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testKeyNormalized() {
+        limiter.tryAcquire("Alice");
+        limiter.tryAcquire(" alice ");
+        limiter.tryAcquire("ALICE");
+
+        // 验证结果：忽略大小写与首尾空白
+        assertFalse(limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void testWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        // 执行测试：进入下一窗口的一半，上一窗口的 3 次按一半（向下取整为 1）计入
+        now.addAndGet(TimeUnit.SECONDS.toNanos(90));
+
+        // 验证结果
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+
+        // 验证结果：两个窗口后完全恢复
+        now.addAndGet(TimeUnit.SECONDS.toNanos(120));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+        }
+    }
+
+    @Test
+    void testRejectedRequestsNotCounted() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        // 执行测试：上一窗口只计入成功的 3 次
+        now.addAndGet(TimeUnit.SECONDS.toNanos(90));
+
+        // 验证结果：按一半计入后还可以再请求 2 次
+        assertTrue(limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+        assertFalse(limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void testRetryAfter() {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(45));
+
+        // 验证结果
+        assertEquals(15, limiter.getRetryAfterSeconds());
+    }
+
+    @Test
+    void testInterceptorRejectsWith429() throws Exception {
+        SlidingWindowRateLimiter perIp = new SlidingWindowRateLimiter(100, Duration.ofMinutes(1), 1024, now::get);
+        AuthRateLimitInterceptor interceptor = new AuthRateLimitInterceptor(Map.of(
+                "/user/doLogin", new AuthRateLimitInterceptor.Rule(perIp, limiter, "username")));
+
+        // 执行测试：同一账号超限
+        for (int i = 0; i < 3; i++) {
+            assertTrue(interceptor.preHandle(loginRequest("alice"), new MockHttpServletResponse(), null));
+        }
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean passed = interceptor.preHandle(loginRequest("alice"), rejected, null);
+
+        // 验证结果：直接返回 429，其他账号与其他路径不受影响
+        assertFalse(passed);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString(StandardCharsets.UTF_8).contains("\"code\":429"));
+        assertTrue(interceptor.preHandle(loginRequest("bob"), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/user/getInfo"), new MockHttpServletResponse(), null));
+        assertEquals(5, 100 - remaining(perIp));
+    }
+
+    @Test
+    void testInterceptorMatchesEncodedPath() throws Exception {
+        // 准备测试数据
+        AuthRateLimitInterceptor interceptor = new AuthRateLimitInterceptor(Map.of(
+                "/user/doLogin", new AuthRateLimitInterceptor.Rule(null, limiter, "username")));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(interceptor.preHandle(loginRequest("alice"), new MockHttpServletResponse(), null));
+        }
+
+        // 执行测试：路径中的字符经过百分号编码，Spring MVC 解码后仍路由到登录接口
+        MockHttpServletRequest encoded = new MockHttpServletRequest("POST", "/user/doLog%69n");
+        encoded.setParameter("username", "alice");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 验证结果：按解码后的路径匹配规则，同样被限流
+        assertFalse(interceptor.preHandle(encoded, response, null));
+        assertEquals(429, response.getStatus());
+    }
+
+    private static MockHttpServletRequest loginRequest(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user/doLogin");
+        request.setParameter("username", username);
+        return request;
+    }
+
+    /**
+     * 同一 IP 还能通过的请求数
+     */
+    private static int remaining(SlidingWindowRateLimiter perIp) {
+        int count = 0;
+        while (perIp.tryAcquire("127.0.0.1")) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+package com.guducat.backend.service;
+
+import com.guducat.backend.entity.AccountKey;
+import com.guducat.backend.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AccountAvailabilityServiceTest {
+
+    private UserMapper userMapper;
+
+    private AccountAvailabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        service = new AccountAvailabilityService(userMapper, 1000, 0.01, 0);
+    }
+
+    @Test
+    void testNotReady_ChecksDatabase() {
+        // 设置模拟行为
+        when(userMapper.checkUsernameExists("newuser")).thenReturn(0);
+
+        // 执行测试
+        boolean available = service.isUsernameAvailable("newuser");
+
+        // 验证结果：过滤器未构建时查询数据库
+        assertTrue(available);
+        assertFalse(service.isReady());
+        verify(userMapper, times(1)).checkUsernameExists("newuser");
+    }
+
+    @Test
+    void testRebuild_ScansInBatchesAndSkipsDatabaseForUnknown() {
+        // 准备测试数据：1500 个账号，分两批返回
+        List<AccountKey> all = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            all.add(new AccountKey(id, "user" + id, "user" + id + "@example.com"));
+        }
+        when(userMapper.selectCount(null)).thenReturn(1500L);
+        when(userMapper.scanAccountKeys(0L, 1000)).thenReturn(all.subList(0, 1000));
+        when(userMapper.scanAccountKeys(1000L, 1000)).thenReturn(all.subList(1000, 1500));
+        when(userMapper.checkUsernameExists("user42")).thenReturn(1);
+        when(userMapper.checkEmailExists("user1499@example.com")).thenReturn(1);
+
+        // 执行测试
+        service.rebuild();
+
+        // 验证结果：已存在的账号经数据库确认为不可用
+        assertTrue(service.isReady());
+        assertFalse(service.isUsernameAvailable("user42"));
+        assertFalse(service.isEmailAvailable(" User1499@Example.com"));
+        verify(userMapper, times(2)).scanAccountKeys(anyLong(), eq(1000));
+
+        // 未注册的用户名绝大多数由过滤器直接判定，不查询数据库
+        for (int i = 0; i < 100; i++) {
+            assertTrue(service.isUsernameAvailable("fresh" + i));
+        }
+        assertTrue(service.getFilterRejectCount() > 90);
+    }
+
+    @Test
+    void testRecordAccount_VisibleImmediately() {
+        // 设置模拟行为：空表
+        when(userMapper.selectCount(null)).thenReturn(0L);
+        when(userMapper.scanAccountKeys(anyLong(), anyInt())).thenReturn(List.of());
+        service.rebuild();
+
+        // 执行测试
+        service.recordAccount("newuser", "new@example.com");
+        when(userMapper.checkUsernameExists("newuser")).thenReturn(1);
+
+        // 验证结果：新账号命中过滤器，查询数据库确认
+        assertFalse(service.isUsernameAvailable("newuser"));
+        verify(userMapper, times(1)).checkUsernameExists("newuser");
+    }
+
+    @Test
+    void testRebuildIfStale_OnlyAfterRemoval() {
+        // 设置模拟行为
+        when(userMapper.selectCount(null)).thenReturn(0L);
+        when(userMapper.scanAccountKeys(anyLong(), anyInt())).thenReturn(List.of());
+        service.rebuild();
+
+        // 执行测试：没有删除时不重建
+        service.rebuildIfStale();
+        verify(userMapper, times(1)).selectCount(null);
+
+        // 有删除时重建
+        service.recordRemoval();
+        service.rebuildIfStale();
+        verify(userMapper, times(2)).selectCount(null);
+    }
+
+    @Test
+    void testBroadcast_AccountVisibleOnOtherNodes() {
+        // 准备测试数据：两个节点，空表，广播同时送达两个节点（包括发布者本身）
+        when(userMapper.selectCount(null)).thenReturn(0L);
+        when(userMapper.scanAccountKeys(anyLong(), anyInt())).thenReturn(List.of());
+        AccountAvailabilityService other = new AccountAvailabilityService(userMapper, 1000, 0.01, 0);
+        service.rebuild();
+        other.rebuild();
+        service.enableBroadcast(message -> {
+            service.onMessage(message);
+            other.onMessage(message);
+        });
+        when(userMapper.checkUsernameExists("nodeuser")).thenReturn(1);
+        when(userMapper.checkEmailExists("node@example.com")).thenReturn(1);
+
+        // 执行测试：在本节点注册
+        service.recordAccount("NodeUser", "node@example.com");
+
+        // 验证结果：另一个节点的过滤器命中，查询数据库确认为不可用
+        assertFalse(other.isUsernameAvailable("nodeuser"));
+        assertFalse(other.isEmailAvailable("node@example.com"));
+        verify(userMapper, times(1)).checkUsernameExists("nodeuser");
+        verify(userMapper, times(1)).checkEmailExists("node@example.com");
+    }
+
+    @Test
+    void testUsernameCaseVariant_ChecksDatabase() {
+        // 准备测试数据：已注册 Alice
+        when(userMapper.selectCount(null)).thenReturn(1L);
+        when(userMapper.scanAccountKeys(0L, 1000)).thenReturn(List.of(new AccountKey(1L, "Alice", null)));
+        when(userMapper.checkUsernameExists(anyString())).thenReturn(1);
+        service.rebuild();
+        service.recordAccount("Renée", null);
+
+        // 验证结果：数据库排序规则视为相同的变体都要查询数据库确认，不能由过滤器直接判定可用
+        assertFalse(service.isUsernameAvailable("alice"));
+        assertFalse(service.isUsernameAvailable("ALICE "));
+        assertFalse(service.isUsernameAvailable("renee"));
+        assertEquals(0, service.getFilterRejectCount());
+    }
+}
@@ -1,17 +1,51 @@
 package com.guducat.backend.service;
 
+import cn.dev33.satoken.context.mock.SaTokenContextMockUtil;
 import cn.dev33.satoken.secure.SaSecureUtil;
+import cn.dev33.satoken.stp.StpUtil;
+import com.guducat.backend.audit.AuditLog;
+import com.guducat.backend.cache.LocalCache;
+import com.guducat.backend.datasource.ReadYourWrites;
+import com.guducat.backend.entity.BulkOperationResult;
+import com.guducat.backend.entity.BulkUserRequest;
+import com.guducat.backend.entity.CursorPage;
+import com.guducat.backend.entity.LoginAccount;
 import com.guducat.backend.entity.User;
+import com.guducat.backend.entity.UserProfile;
+import com.guducat.backend.entity.UserSummary;
 import com.guducat.backend.mapper.UserMapper;
+import com.guducat.backend.metrics.AuthMetrics;
+import com.guducat.backend.security.PasswordHasher;
+import com.guducat.backend.security.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -19,12 +53,54 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private LocalCache<Long, String> roleCache = new LocalCache<>("role", 100, Duration.ofMinutes(5));
+
+    @Spy
+    private LocalCache<Long, UserProfile> profileCache = new LocalCache<>("profile", 100, Duration.ofMinutes(5));
+
+    @Spy
+    private LocalCache<String, Boolean> unknownAccountCache = new LocalCache<>("unknown-account", 100, Duration.ofMinutes(1));
+
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(1, 8, 1000, 0, 5000);
+
+    @Mock
+    private AccountAvailabilityService accountAvailabilityService;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Spy
+    private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("test-task-");
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+
+    @Spy
     @InjectMocks
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // ServiceImpl 的 baseMapper 是泛型字段，Mockito 无法按类型注入，需要手动设置
+        ReflectionTestUtils.setField(userService, "baseMapper", userMapper);
+        SaTokenContextMockUtil.setMockContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SaTokenContextMockUtil.clearContext();
+        passwordHashingService.shutdown();
     }
 
     @Test
@@ -32,48 +108,117 @@ class UserServiceTest {
         // 准备测试数据
         String username = "testuser";
         String password = "password123";
-        String hashedPassword = SaSecureUtil.sha256(password);
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256(password), "user");
+        
+        // 设置模拟行为
+        when(userMapper.findLoginAccount(username, null)).thenReturn(account);
         
-        User mockUser = new User();
-        mockUser.setId(1L);
-        mockUser.setUsername(username);
-        mockUser.setPassword(hashedPassword);
+        // 执行测试
+        boolean result = userService.login(username, password);
+        
+        // 验证结果：只查询一次，并预热角色缓存
+        assertTrue(result);
+        verify(userMapper, times(1)).findLoginAccount(username, null);
+        assertEquals("user", roleCache.get(1L));
+    }
+    
+    @Test
+    void testLogin_RoleChangedDuringLookupNotCached() {
+        // 准备测试数据
+        String username = "testuser";
+        String password = "password123";
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256(password), "admin");
+
+        // 设置模拟行为：查询返回后、登录完成前管理员修改了角色
+        when(userMapper.findLoginAccount(username, null)).thenAnswer(invocation -> {
+            roleCache.invalidate(1L);
+            return account;
+        });
+
+        // 执行测试
+        boolean result = userService.login(username, password);
+
+        // 验证结果：登录成功，但查到的旧角色不写入缓存
+        assertTrue(result);
+        assertNull(roleCache.get(1L));
+    }
+
+    @Test
+    void testLogin_UnknownAccountCacheOnlyCanonical() {
+        // 准备测试数据
+        String password = "password123";
+
+        // 执行测试：带空白、大写的写法各登录两次，规范写法登录两次
+        userService.login(" alice", password);
+        userService.login(" alice", password);
+        userService.login("Alice", password);
+        userService.login("Alice", password);
+        userService.login("alice", password);
+        userService.login("alice", password);
+
+        // 验证结果：只有规范写法进入负缓存，其他写法每次都查询数据库，不会把真实账号写入负缓存
+        verify(userMapper, times(2)).findLoginAccount(eq(" alice"), isNull());
+        verify(userMapper, times(2)).findLoginAccount(eq("Alice"), isNull());
+        verify(userMapper, times(1)).findLoginAccount(eq("alice"), isNull());
+        assertNull(unknownAccountCache.get(" alice"));
+        assertNull(unknownAccountCache.get("Alice"));
+        assertNotNull(unknownAccountCache.get("alice"));
+    }
+
+    @Test
+    void testLogin_RehashesLegacyPassword() {
+        // 准备测试数据：旧版无盐 SHA-256 哈希
+        String username = "legacyuser";
+        String password = "password123";
+        String legacyHash = SaSecureUtil.sha256(password);
+        LoginAccount account = new LoginAccount(1L, legacyHash, "user");
         
         // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(mockUser);
+        when(userMapper.findLoginAccount(username, null)).thenReturn(account);
+        
+        // 执行测试
+        boolean result = userService.login(username, password);
+        
+        // 验证结果：登录成功，并由应用线程池在后台写回加盐哈希
+        assertTrue(result);
+        verify(userMapper, timeout(1000)).replacePasswordHash(eq(1L), eq(legacyHash), startsWith("$pbkdf2-sha256$"));
+        verify(taskExecutor).execute(any());
+    }
+    
+    @Test
+    void testLogin_CurrentHashNotRehashed() {
+        // 准备测试数据
+        String username = "testuser";
+        String password = "password123";
+        LoginAccount account = new LoginAccount(1L, passwordHashingService.hash(password), "user");
+        
+        // 设置模拟行为
+        when(userMapper.findLoginAccount(username, null)).thenReturn(account);
         
         // 执行测试
         boolean result = userService.login(username, password);
         
         // 验证结果
         assertTrue(result);
-        verify(userMapper, times(1)).findByUsername(username);
-        verify(userMapper, never()).findByEmail(anyString());
+        verify(userMapper, never()).replacePasswordHash(any(), any(), any());
     }
     
     @Test
     void testLoginWithEmail_Success() {
         // 准备测试数据
-        String email = "test@example.com";
+        String email = " Test@Example.com";
         String password = "password123";
-        String hashedPassword = SaSecureUtil.sha256(password);
-        
-        User mockUser = new User();
-        mockUser.setId(1L);
-        mockUser.setEmail(email);
-        mockUser.setPassword(hashedPassword);
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256(password), "user");
         
         // 设置模拟行为
-        when(userMapper.findByUsername(email)).thenReturn(null);
-        when(userMapper.findByEmail(email)).thenReturn(mockUser);
+        when(userMapper.findLoginAccount(email, "test@example.com")).thenReturn(account);
         
         // 执行测试
         boolean result = userService.login(email, password);
         
-        // 验证结果
+        // 验证结果：用户名和规范化后的邮箱在同一次查询中匹配
         assertTrue(result);
-        verify(userMapper, times(1)).findByUsername(email);
-        verify(userMapper, times(1)).findByEmail(email);
+        verify(userMapper, times(1)).findLoginAccount(email, "test@example.com");
     }
     
     @Test
@@ -82,22 +227,18 @@ class UserServiceTest {
         String username = "testuser";
         String password = "password123";
         String wrongPassword = "wrongpassword";
-        String hashedPassword = SaSecureUtil.sha256(password);
-        
-        User mockUser = new User();
-        mockUser.setId(1L);
-        mockUser.setUsername(username);
-        mockUser.setPassword(hashedPassword);
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256(password), "user");
         
         // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(mockUser);
+        when(userMapper.findLoginAccount(username, null)).thenReturn(account);
         
         // 执行测试
         boolean result = userService.login(username, wrongPassword);
         
-        // 验证结果
+        // 验证结果：密码错误不进入负缓存
         assertFalse(result);
-        verify(userMapper, times(1)).findByUsername(username);
+        verify(userMapper, times(1)).findLoginAccount(username, null);
+        assertNull(unknownAccountCache.get(username));
     }
     
     @Test
@@ -107,16 +248,74 @@ class UserServiceTest {
         String password = "password123";
         
         // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(null);
-        when(userMapper.findByEmail(username)).thenReturn(null);
+        when(userMapper.findLoginAccount(username, null)).thenReturn(null);
         
         // 执行测试
-        boolean result = userService.login(username, password);
+        boolean first = userService.login(username, password);
+        boolean second = userService.login(username, password);
+        
+        // 验证结果：第二次命中负缓存，不再查询数据库；两次都执行占位哈希，耗时与存在的账号相同
+        assertFalse(first);
+        assertFalse(second);
+        verify(userMapper, times(1)).findLoginAccount(username, null);
+        verify(passwordHashingService, times(2)).matchesDummy(password);
+    }
+
+    @Test
+    void testLogin_RecordsMetrics() {
+        // 准备测试数据
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256("password123"), "user");
+
+        // 设置模拟行为
+        when(userMapper.findLoginAccount("testuser", null)).thenReturn(account);
+
+        // 执行测试
+        userService.login("testuser", "password123");
+        userService.login("testuser", "wrongpassword");
+        userService.login("testuser", "wrongpassword");
+
+        // 验证结果：按结果分别计时
+        assertEquals(1, meterRegistry.get(AuthMetrics.OPERATION_TIMER)
+                .tags("operation", "login", "outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get(AuthMetrics.OPERATION_TIMER)
+                .tags("operation", "login", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testLogin_RecordsAudit() {
+        // 准备测试数据
+        LoginAccount account = new LoginAccount(1L, SaSecureUtil.sha256("password123"), "user");
+
+        // 设置模拟行为
+        when(userMapper.findLoginAccount("testuser", null)).thenReturn(account);
+
+        // 执行测试
+        userService.login("testuser", "password123");
+        userService.login("testuser", "wrongpassword");
+
+        // 验证结果：成功时带用户ID，失败时只有账号
+        verify(auditLog).record(AuthMetrics.LOGIN, true, 1L, "testuser");
+        verify(auditLog).record(AuthMetrics.LOGIN, false, null, "testuser");
+    }
+    
+    @Test
+    void testRegister_ClearsUnknownAccountCache() {
+        // 准备测试数据
+        String username = "newuser";
+        String email = "newuser@example.com";
+        unknownAccountCache.put(username, Boolean.TRUE);
+        unknownAccountCache.put(email, Boolean.TRUE);
         
-        // 验证结果
-        assertFalse(result);
-        verify(userMapper, times(1)).findByUsername(username);
-        verify(userMapper, times(1)).findByEmail(username);
+        // 设置模拟行为
+        doReturn(true).when(userService).save(any(User.class));
+        
+        // 执行测试
+        userService.register(username, "New User", "NewUser@Example.com", null, "password123");
+        
+        // 验证结果：邮箱被规范化，负缓存被清除
+        verify(userService, times(1)).save(argThat(user -> email.equals(user.getEmail())));
+        assertNull(unknownAccountCache.get(username));
+        assertNull(unknownAccountCache.get(email));
     }
     
     @Test
@@ -128,19 +327,22 @@ class UserServiceTest {
         String avatarUrl = "https://example.com/avatar.jpg";
         String password = "password123";
         
-        // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(null);
-        when(userMapper.checkEmailExists(email)).thenReturn(0);
-        when(userService.save(any(User.class))).thenReturn(true);
+        // 设置模拟行为：模拟数据库回填自增ID
+        doAnswer(invocation -> {
+            invocation.<User>getArgument(0).setId(10L);
+            return true;
+        }).when(userService).save(any(User.class));
         
         // 执行测试
-        boolean result = userService.register(username, nickname, email, avatarUrl, password);
+        Long result = userService.register(username, nickname, email, avatarUrl, password);
         
-        // 验证结果
-        assertTrue(result);
-        verify(userMapper, times(1)).findByUsername(username);
-        verify(userMapper, times(1)).checkEmailExists(email);
+        // 验证结果：只有一次 INSERT，不再预先查询
+        assertEquals(10L, result);
         verify(userService, times(1)).save(any(User.class));
+        verify(userMapper, never()).checkUsernameExists(anyString());
+        verify(userMapper, never()).checkEmailExists(anyString());
+        assertEquals("user", roleCache.get(10L));
+        verify(accountAvailabilityService, times(1)).recordAccount(username, email);
     }
     
     @Test
@@ -152,20 +354,16 @@ class UserServiceTest {
         String avatarUrl = "https://example.com/avatar.jpg";
         String password = "password123";
         
-        User existingUser = new User();
-        existingUser.setUsername(username);
-        
-        // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(existingUser);
+        // 设置模拟行为：唯一索引冲突
+        doThrow(new DuplicateKeyException("Duplicate entry for key 'uk_username'"))
+                .when(userService).save(any(User.class));
         
         // 执行测试
-        boolean result = userService.register(username, nickname, email, avatarUrl, password);
+        Long result = userService.register(username, nickname, email, avatarUrl, password);
         
         // 验证结果
-        assertFalse(result);
-        verify(userMapper, times(1)).findByUsername(username);
-        verify(userMapper, never()).checkEmailExists(anyString());
-        verify(userService, never()).save(any(User.class));
+        assertNull(result);
+        verify(userService, times(1)).save(any(User.class));
     }
     
     @Test
@@ -176,103 +374,376 @@ class UserServiceTest {
         String email = "existing@example.com";
         String avatarUrl = "https://example.com/avatar.jpg";
         String password = "password123";
+        unknownAccountCache.put(username, Boolean.TRUE);
         
-        // 设置模拟行为
-        when(userMapper.findByUsername(username)).thenReturn(null);
-        when(userMapper.checkEmailExists(email)).thenReturn(1);
+        // 设置模拟行为：唯一索引冲突
+        doThrow(new DuplicateKeyException("Duplicate entry for key 'uk_email'"))
+                .when(userService).save(any(User.class));
         
         // 执行测试
-        boolean result = userService.register(username, nickname, email, avatarUrl, password);
+        Long result = userService.register(username, nickname, email, avatarUrl, password);
         
-        // 验证结果
-        assertFalse(result);
-        verify(userMapper, times(1)).findByUsername(username);
-        verify(userMapper, times(1)).checkEmailExists(email);
-        verify(userService, never()).save(any(User.class));
+        // 验证结果：注册失败时负缓存保持不变
+        assertNull(result);
+        assertNotNull(unknownAccountCache.get(username));
     }
     
+    @Test
+    void testListUsers_HasMore() {
+        // 准备测试数据：每页 2 条，查询时多取 1 条
+        List<UserSummary> rows = List.of(
+                new UserSummary(1L, "a", "A", "a@example.com", "user"),
+                new UserSummary(2L, "b", "B", "b@example.com", "user"),
+                new UserSummary(3L, "c", "C", "c@example.com", "user"));
+        when(userMapper.listUserSummaries(0L, 3, null, null)).thenReturn(rows);
+        
+        // 执行测试
+        CursorPage<UserSummary> page = userService.listUsers(null, 2, "", null);
+        
+        // 验证结果
+        assertEquals(2, page.items().size());
+        assertTrue(page.hasMore());
+        assertEquals(2L, page.nextAfter());
+    }
+
+    @Test
+    void testListUsers_CapsLimitAndEscapesPrefix() {
+        // 设置模拟行为
+        when(userMapper.listUserSummaries(anyLong(), anyInt(), any(), any())).thenReturn(List.of());
+        
+        // 执行测试
+        CursorPage<UserSummary> page = userService.listUsers(10L, 100000, "admin", "a_b%");
+        
+        // 验证结果：每页条数被限制，LIKE 通配符被转义
+        assertFalse(page.hasMore());
+        assertNull(page.nextAfter());
+        verify(userMapper, times(1)).listUserSummaries(10L, UserService.MAX_PAGE_SIZE + 1, "admin", "a!_b!%");
+    }
+
+    @Test
+    void testBulkDelete_ChunksAndExcludesOperator() {
+        // 准备测试数据：1001 个 id（含重复和操作者本人）
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        BulkUserRequest request = new BulkUserRequest();
+        request.setIds(ids);
+        roleCache.put(2L, "user");
+        
+        // 设置模拟行为：id 1001 不存在
+        when(userMapper.lockExistingIds(anyCollection())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                .filter(id -> id <= 1000)
+                .toList());
+        when(userMapper.deleteBatchIds(anyCollection())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        
+        try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
+            // 执行测试：操作者ID为1
+            BulkOperationResult result = userService.bulkDelete(request, 1L);
+            
+            // 验证结果：去重并排除操作者后 1000 个，分两块，每块一条 DELETE，不存在的 id 不计入
+            assertEquals(999, result.affected());
+            assertEquals(2, result.chunks().size());
+            assertEquals(500, result.chunks().get(0).size());
+            verify(userMapper, times(2)).deleteBatchIds(anyCollection());
+            verify(transactionTemplate, times(2)).execute(any());
+            stpUtilMockedStatic.verify(() -> StpUtil.logout(2L));
+            stpUtilMockedStatic.verify(() -> StpUtil.logout(1L), never());
+            assertNull(roleCache.get(2L));
+
+            // 每个被删除的用户一条审计事件
+            verify(auditLog, times(999)).record(eq(AuthMetrics.REMOVE_USER), eq(true), anyLong(), isNull());
+            verify(auditLog).record(AuthMetrics.REMOVE_USER, true, 2L, null);
+            verify(auditLog, never()).record(AuthMetrics.REMOVE_USER, true, 1001L, null);
+        }
+    }
+
+    @Test
+    void testBulkUpdateRole_ByFilter() {
+        // 准备测试数据
+        BulkUserRequest request = new BulkUserRequest();
+        request.setUsernamePrefix("temp_");
+        request.setNewRole("admin");
+        roleCache.put(5L, "user");
+        List<UserSummary> page = List.of(
+                new UserSummary(5L, "temp_a", null, null, "user"),
+                new UserSummary(9L, "temp_b", null, null, "user"));
+        
+        // 设置模拟行为：只有一页
+        when(userMapper.listUserSummaries(0L, UserService.BULK_CHUNK_SIZE, null, "temp!_")).thenReturn(page);
+        when(userMapper.lockExistingIds(List.of(5L, 9L))).thenReturn(List.of(5L, 9L));
+        when(userMapper.updateRoleByIds(List.of(5L, 9L), "admin")).thenReturn(2);
+        
+        // 执行测试
+        BulkOperationResult result = userService.bulkUpdateRole(request, 1L);
+        
+        // 验证结果：一条 UPDATE，角色缓存被清除，每个用户一条审计事件
+        assertEquals(2, result.affected());
+        assertEquals(1, result.chunks().size());
+        verify(userMapper, times(1)).updateRoleByIds(List.of(5L, 9L), "admin");
+        assertNull(roleCache.get(5L));
+        verify(auditLog).record(AuditLog.UPDATE_ROLE, true, 5L, null);
+        verify(auditLog).record(AuditLog.UPDATE_ROLE, true, 9L, null);
+    }
+
+    @Test
+    void testBulkUpdateRole_RequiresSelection() {
+        // 准备测试数据：既没有 id 列表也没有过滤条件
+        BulkUserRequest request = new BulkUserRequest();
+        request.setNewRole("admin");
+        
+        // 执行测试并验证结果
+        assertThrows(InvalidBulkRequestException.class, () -> userService.bulkUpdateRole(request, 1L));
+        verify(userMapper, never()).updateRoleByIds(anyCollection(), anyString());
+    }
+
+    @Test
+    void testBulkUpdateRole_RejectsUnknownRole() {
+        // 准备测试数据：不存在的角色
+        BulkUserRequest request = new BulkUserRequest();
+        request.setIds(List.of(5L));
+        request.setNewRole("superadmin");
+
+        // 执行测试并验证结果：不进入事务
+        assertThrows(InvalidBulkRequestException.class, () -> userService.bulkUpdateRole(request, 1L));
+        verify(transactionTemplate, never()).execute(any());
+    }
+
     @Test
     void testUpdateUserInfo_Success() {
         // 准备测试数据
         Long userId = 1L;
         String newNickname = "Updated Nickname";
-        String newEmail = "newemail@example.com";
+        String newEmail = "NewEmail@Example.com ";
         String newAvatarUrl = "https://example.com/new-avatar.jpg";
         
-        User existingUser = new User();
-        existingUser.setId(userId);
-        existingUser.setNickname("Old Nickname");
-        existingUser.setEmail("old@example.com");
-        existingUser.setAvatarUrl("https://example.com/old-avatar.jpg");
+        // 设置模拟行为
+        when(userMapper.updateProfile(userId, newNickname, "newemail@example.com", newAvatarUrl, 2)).thenReturn(1);
+        
+        // 执行测试
+        ProfileUpdateResult result = userService.updateUserInfo(userId, newNickname, newEmail, newAvatarUrl, 2);
+        
+        // 验证结果：一条条件更新，不再预先查询用户和邮箱
+        assertEquals(ProfileUpdateResult.UPDATED, result);
+        verify(userMapper, times(1)).updateProfile(userId, newNickname, "newemail@example.com", newAvatarUrl, 2);
+        verify(userService, never()).getById(any());
+        verify(userMapper, never()).checkEmailExists(anyString());
+        verify(userService, never()).updateById(any(User.class));
+    }
+
+    @Test
+    void testUpdateUserInfo_OnlyChangedColumns() {
+        // 准备测试数据：空昵称表示不修改
+        Long userId = 1L;
         
         // 设置模拟行为
-        when(userService.getById(userId)).thenReturn(existingUser);
-        when(userMapper.checkEmailExists(newEmail)).thenReturn(0);
-        when(userService.updateById(any(User.class))).thenReturn(true);
+        when(userMapper.updateProfile(userId, null, null, "https://example.com/a.jpg", null)).thenReturn(1);
         
         // 执行测试
-        boolean result = userService.updateUserInfo(userId, newNickname, newEmail, newAvatarUrl);
+        boolean result = userService.updateUserInfo(userId, "", null, "https://example.com/a.jpg");
         
         // 验证结果
         assertTrue(result);
-        assertEquals(newNickname, existingUser.getNickname());
-        assertEquals(newEmail, existingUser.getEmail());
-        assertEquals(newAvatarUrl, existingUser.getAvatarUrl());
-        verify(userService, times(1)).getById(userId);
-        verify(userMapper, times(1)).checkEmailExists(newEmail);
-        verify(userService, times(1)).updateById(existingUser);
+        verify(userMapper, times(1)).updateProfile(userId, null, null, "https://example.com/a.jpg", null);
     }
     
     @Test
     void testUpdateUserInfo_EmailExists() {
         // 准备测试数据
         Long userId = 1L;
-        String newNickname = "Updated Nickname";
         String newEmail = "existing@example.com";
-        String newAvatarUrl = "https://example.com/new-avatar.jpg";
         
-        User existingUser = new User();
-        existingUser.setId(userId);
-        existingUser.setNickname("Old Nickname");
-        existingUser.setEmail("old@example.com");
-        existingUser.setAvatarUrl("https://example.com/old-avatar.jpg");
+        // 设置模拟行为：唯一索引冲突
+        when(userMapper.updateProfile(userId, "Updated Nickname", newEmail, null, null))
+                .thenThrow(new DuplicateKeyException("Duplicate entry for key 'uk_email'"));
         
-        // 设置模拟行为
-        when(userService.getById(userId)).thenReturn(existingUser);
-        when(userMapper.checkEmailExists(newEmail)).thenReturn(1);
+        // 执行测试
+        ProfileUpdateResult result = userService.updateUserInfo(userId, "Updated Nickname", newEmail, null, null);
+        
+        // 验证结果
+        assertEquals(ProfileUpdateResult.EMAIL_TAKEN, result);
+        assertFalse(userService.updateUserInfo(userId, "Updated Nickname", newEmail, null));
+    }
+
+    @Test
+    void testUpdateUserInfo_VersionConflict() {
+        // 准备测试数据
+        Long userId = 1L;
+        
+        // 设置模拟行为：版本不一致，未更新任何行
+        when(userMapper.updateProfile(userId, "Updated Nickname", null, null, 4)).thenReturn(0);
+        when(userMapper.checkIdExists(userId)).thenReturn(1);
         
         // 执行测试
-        boolean result = userService.updateUserInfo(userId, newNickname, newEmail, newAvatarUrl);
+        ProfileUpdateResult result = userService.updateUserInfo(userId, "Updated Nickname", null, null, 4);
         
         // 验证结果
-        assertFalse(result);
-        // 确保用户信息没有被更新
-        assertEquals("Old Nickname", existingUser.getNickname());
-        assertEquals("old@example.com", existingUser.getEmail());
-        assertEquals("https://example.com/old-avatar.jpg", existingUser.getAvatarUrl());
-        verify(userService, times(1)).getById(userId);
-        verify(userMapper, times(1)).checkEmailExists(newEmail);
-        verify(userService, never()).updateById(any(User.class));
+        assertEquals(ProfileUpdateResult.VERSION_CONFLICT, result);
     }
     
     @Test
     void testUpdateUserInfo_UserNotFound() {
         // 准备测试数据
         Long userId = 999L;
-        String newNickname = "Updated Nickname";
-        String newEmail = "newemail@example.com";
-        String newAvatarUrl = "https://example.com/new-avatar.jpg";
         
         // 设置模拟行为
-        when(userService.getById(userId)).thenReturn(null);
+        when(userMapper.updateProfile(userId, "Updated Nickname", "newemail@example.com", null, null)).thenReturn(0);
         
         // 执行测试
-        boolean result = userService.updateUserInfo(userId, newNickname, newEmail, newAvatarUrl);
+        ProfileUpdateResult result = userService.updateUserInfo(userId, "Updated Nickname", "newemail@example.com", null, null);
         
         // 验证结果
-        assertFalse(result);
-        verify(userService, times(1)).getById(userId);
-        verify(userMapper, never()).checkEmailExists(anyString());
+        assertEquals(ProfileUpdateResult.NOT_FOUND, result);
+        verify(userService, never()).updateById(any(User.class));
+    }
+
+    @Test
+    void testResetPassword_SingleUpdate() {
+        // 准备测试数据
+        Long userId = 1L;
+        
+        // 设置模拟行为
+        when(userMapper.updatePassword(eq(userId), anyString())).thenReturn(1);
+        
+        // 执行测试
+        boolean result = userService.resetPassword(userId, "newPassword");
+        
+        // 验证结果：只更新密码列，不读取整行
+        assertTrue(result);
+        verify(userMapper, times(1)).updatePassword(eq(userId), argThat(hash -> PasswordHasher.matches("newPassword", hash)));
+        verify(userService, never()).getById(any());
         verify(userService, never()).updateById(any(User.class));
     }
+
+    @Test
+    void testGetUserRole_Cached() {
+        // 准备测试数据
+        Long userId = 1L;
+
+        // 设置模拟行为
+        when(userMapper.findRoleById(userId)).thenReturn("admin");
+
+        // 执行测试
+        String first = userService.getUserRole(userId);
+        String second = userService.getUserRole(userId);
+
+        // 验证结果：只查询角色一列，第二次命中缓存，不再查询数据库
+        assertEquals("admin", first);
+        assertEquals("admin", second);
+        verify(userMapper, times(1)).findRoleById(userId);
+        verify(userMapper, never()).findProfileById(anyLong());
+        assertEquals(1, roleCache.getHitCount());
+    }
+
+    @Test
+    void testGetUserRole_UsesProfileLoadedInRequest() {
+        // 准备测试数据
+        Long userId = 1L;
+        UserProfile profile = new UserProfile(userId, "admin", "管理员", "admin@example.com", null, "admin", 0);
+
+        // 设置模拟行为
+        when(userMapper.findProfileById(userId)).thenReturn(profile);
+
+        // 执行测试：同一请求内先获取资料，再校验角色
+        userService.getUserProfile(userId);
+        String role = userService.getUserRole(userId);
+
+        // 验证结果：角色直接取自已加载的资料
+        assertEquals("admin", role);
+        verify(userMapper, never()).findRoleById(anyLong());
+    }
+
+    @Test
+    void testGetUserProfile_CachedAcrossRequests() {
+        // 准备测试数据
+        Long userId = 1L;
+        UserProfile profile = new UserProfile(userId, "testuser", "Test", null, null, "user", 0);
+        
+        // 设置模拟行为
+        when(userMapper.findProfileById(userId)).thenReturn(profile);
+        
+        // 执行测试：两个不同的请求
+        userService.getUserProfile(userId);
+        SaTokenContextMockUtil.clearContext();
+        SaTokenContextMockUtil.setMockContext();
+        UserProfile second = userService.getUserProfile(userId);
+        
+        // 验证结果：第二个请求命中资料缓存
+        assertSame(profile, second);
+        verify(userMapper, times(1)).findProfileById(userId);
+        assertEquals(1, profileCache.getHitCount());
+    }
+
+    @Test
+    void testUpdateUserInfo_InvalidatesProfileCache() {
+        // 准备测试数据
+        Long userId = 1L;
+        profileCache.put(userId, new UserProfile(userId, "testuser", "Old", null, null, "user", 0));
+        
+        // 设置模拟行为
+        when(userMapper.updateProfile(userId, "New", null, null, 0)).thenReturn(1);
+        
+        // 执行测试
+        userService.updateUserInfo(userId, "New", null, null, 0);
+        
+        // 验证结果
+        assertNull(profileCache.get(userId));
+    }
+
+    @Test
+    void testResetPassword_InvalidatesProfileCache() {
+        // 准备测试数据
+        Long userId = 1L;
+        profileCache.put(userId, new UserProfile(userId, "testuser", "Test", null, null, "user", 0));
+        
+        // 设置模拟行为
+        when(userMapper.updatePassword(eq(userId), anyString())).thenReturn(1);
+        
+        // 执行测试
+        userService.resetPassword(userId, "newPassword");
+        
+        // 验证结果：版本号已变化，缓存的资料失效
+        assertNull(profileCache.get(userId));
+    }
+
+    @Test
+    void testDeleteAccount_InvalidatesRoleCache() {
+        // 准备测试数据
+        Long userId = 1L;
+
+        // 设置模拟行为
+        when(userMapper.findRoleById(userId)).thenReturn("user");
+        doReturn(true).when(userService).removeById(userId);
+        userService.getUserRole(userId);
+
+        // 执行测试
+        boolean result = userService.deleteAccount(userId);
+
+        // 验证结果
+        assertTrue(result);
+        verify(roleCache, times(1)).invalidate(userId);
+        verify(profileCache, times(1)).invalidate(userId);
+        assertNull(roleCache.get(userId));
+    }
+
+    @Test
+    void testRemoveUser_InvalidatesRoleCache() {
+        // 准备测试数据
+        Long userId = 2L;
+        roleCache.put(userId, "admin");
+
+        // 设置模拟行为
+        doReturn(true).when(userService).removeById(userId);
+
+        try (MockedStatic<StpUtil> stpUtilMockedStatic = mockStatic(StpUtil.class)) {
+            // 执行测试
+            boolean result = userService.removeUser(userId);
+
+            // 验证结果：缓存失效，被删除用户的会话被注销
+            assertTrue(result);
+            assertNull(roleCache.get(userId));
+            stpUtilMockedStatic.verify(() -> StpUtil.logout(userId));
+        }
+    }
 }
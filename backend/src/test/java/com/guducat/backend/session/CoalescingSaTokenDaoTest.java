@@ -0,0 +1,137 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingSaTokenDaoTest {
+
+    private static final String LAST_ACTIVE_KEY = "satoken:login:last-active:abc";
+
+    private CountingDao delegate;
+
+    private CoalescingSaTokenDao dao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new CountingDao();
+        dao = new CoalescingSaTokenDao(delegate, Duration.ofSeconds(5));
+        dao.set(LAST_ACTIVE_KEY, "0", 60);
+    }
+
+    @Test
+    void testRenewalsCoalescedPerFlush() {
+        // 执行测试：同一 token 的 100 次续期
+        for (int i = 1; i <= 100; i++) {
+            dao.update(LAST_ACTIVE_KEY, String.valueOf(i));
+        }
+
+        // 验证结果：刷新前不写入存储，本节点读到最新值
+        assertEquals(0, delegate.updates.get());
+        assertEquals("100", dao.get(LAST_ACTIVE_KEY));
+        assertEquals("0", delegate.get(LAST_ACTIVE_KEY));
+
+        // 验证结果：刷新时只写入一次
+        assertEquals(1, dao.flush());
+        assertEquals(1, delegate.updates.get());
+        assertEquals("100", delegate.get(LAST_ACTIVE_KEY));
+        assertEquals(0, dao.getPendingCount());
+        assertEquals(100, dao.getRecordedCount());
+        assertEquals(1, dao.getWrittenCount());
+        assertEquals(0, dao.flush());
+    }
+
+    @Test
+    void testOtherWritesPassThrough() {
+        dao.set("satoken:login:token:abc", "10001", 60);
+
+        // 执行测试
+        dao.update("satoken:login:token:abc", "-5");
+
+        // 验证结果
+        assertEquals(1, delegate.updates.get());
+        assertEquals("-5", delegate.get("satoken:login:token:abc"));
+        assertEquals(0, dao.getPendingCount());
+    }
+
+    @Test
+    void testLogoutDiscardsPendingRenewal() {
+        dao.update(LAST_ACTIVE_KEY, "1");
+
+        // 执行测试：注销时 Sa-Token 删除最后活跃时间
+        dao.delete(LAST_ACTIVE_KEY);
+        dao.flush();
+
+        // 验证结果：注销后不会重新写入
+        assertNull(dao.get(LAST_ACTIVE_KEY));
+        assertNull(delegate.get(LAST_ACTIVE_KEY));
+        assertEquals(0, delegate.updates.get());
+    }
+
+    @Test
+    void testFailedFlushRetried() {
+        dao.update(LAST_ACTIVE_KEY, "1");
+        delegate.failing.set(true);
+
+        // 执行测试
+        assertThrows(IllegalStateException.class, dao::flush);
+
+        // 验证结果：写入失败的续期保留到下次刷新
+        assertEquals(1, dao.getPendingCount());
+        delegate.failing.set(false);
+        assertEquals(1, dao.flush());
+        assertEquals("1", delegate.get(LAST_ACTIVE_KEY));
+    }
+
+    @Test
+    void testDestroyFlushesPendingRenewals(@TempDir Path directory) {
+        // 准备测试数据：被装饰的存储支持批量写入
+        FileSaTokenDao file = new FileSaTokenDao(directory, Long.MAX_VALUE);
+        CoalescingSaTokenDao coalescing = new CoalescingSaTokenDao(file, Duration.ofSeconds(5));
+        coalescing.init();
+        coalescing.set(LAST_ACTIVE_KEY, "0", 60);
+        coalescing.set("satoken:login:last-active:def", "0", 60);
+        coalescing.update(LAST_ACTIVE_KEY, "1");
+        coalescing.update("satoken:login:last-active:def", "2");
+
+        // 执行测试：关闭时写入剩余续期
+        coalescing.destroy();
+
+        // 验证结果：重新打开后续期仍在
+        FileSaTokenDao reopened = new FileSaTokenDao(directory, Long.MAX_VALUE);
+        reopened.init();
+        try {
+            assertEquals("1", reopened.get(LAST_ACTIVE_KEY));
+            assertEquals("2", reopened.get("satoken:login:last-active:def"));
+        } finally {
+            reopened.destroy();
+        }
+    }
+
+    /**
+     * 统计 update 调用次数的内存存储，可以模拟写入失败
+     */
+    private static class CountingDao extends SaTokenDaoDefaultImpl {
+
+        final AtomicInteger updates = new AtomicInteger();
+
+        final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public void update(String key, String value) {
+            if (failing.get()) {
+                throw new IllegalStateException("存储不可用");
+            }
+            updates.incrementAndGet();
+            super.update(key, value);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.json.SaJsonTemplateForJackson;
+import cn.dev33.satoken.session.SaSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSaTokenDaoTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private FileSaTokenDao dao;
+
+    @BeforeEach
+    void setUp() {
+        dao = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dao.destroy();
+    }
+
+    @Test
+    void testReadWrite() {
+        dao.set("a", "1", 60);
+        dao.set("b", "2", SaTokenDao.NEVER_EXPIRE);
+        dao.update("a", "11");
+        dao.update("missing", "x");
+        dao.delete("b");
+
+        // 验证结果
+        assertEquals("11", dao.get("a"));
+        assertEquals(60, dao.getTimeout("a"));
+        assertNull(dao.get("b"));
+        assertNull(dao.get("missing"));
+        assertEquals(SaTokenDao.NOT_VALUE_EXPIRE, dao.getTimeout("b"));
+    }
+
+    @Test
+    void testExpiry() {
+        dao.set("short", "1", 10);
+        dao.set("long", "2", 100);
+        dao.set("forever", "3", SaTokenDao.NEVER_EXPIRE);
+
+        now.addAndGet(10_000);
+
+        // 验证结果：过期后即使尚未清理也读不到
+        assertNull(dao.get("short"));
+        assertEquals(90, dao.getTimeout("long"));
+        assertEquals(SaTokenDao.NEVER_EXPIRE, dao.getTimeout("forever"));
+        assertEquals(List.of("forever", "long"), dao.searchData("", "", 0, -1, true));
+
+        // 验证结果：延长有效期
+        dao.updateTimeout("long", 1000);
+        assertEquals(1000, dao.getTimeout("long"));
+    }
+
+    @Test
+    void testPurgeExpired() {
+        dao.set("short", "1", 10);
+        dao.set("long", "2", 100);
+
+        now.addAndGet(10_000);
+
+        // 验证结果
+        assertEquals(1, dao.purgeExpired());
+        assertEquals(1, dao.size());
+    }
+
+    @Test
+    void testRecoverAfterRestart() {
+        dao.set("a", "1", 60);
+        dao.set("b", "2", 60);
+        dao.set("c", "中文值", SaTokenDao.NEVER_EXPIRE);
+        dao.update("a", "11");
+        dao.delete("b");
+        dao.updateTimeout("c", 30);
+        dao.set("short", "x", 5);
+
+        // 执行测试：重启，期间 short 过期
+        dao.destroy();
+        now.addAndGet(5_000);
+        dao = open();
+
+        // 验证结果
+        assertEquals("11", dao.get("a"));
+        assertEquals(55, dao.getTimeout("a"));
+        assertNull(dao.get("b"));
+        assertEquals("中文值", dao.get("c"));
+        assertEquals(25, dao.getTimeout("c"));
+        assertNull(dao.get("short"));
+        assertEquals(2, dao.size());
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            dao.set("key" + i, "value" + i, 60);
+        }
+        for (int i = 0; i < 50; i++) {
+            dao.delete("key" + i);
+        }
+        long logBytes = dao.getLogBytes();
+
+        // 执行测试
+        assertTrue(dao.compact());
+        dao.set("after", "1", 60);
+        dao.delete("key99");
+
+        // 验证结果：旧日志已删除，只剩新快照与新日志
+        assertTrue(dao.getSnapshotBytes() > 0);
+        assertTrue(dao.getSnapshotBytes() < logBytes);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("lock", "log-1.log", "snapshot-1.dat"), files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+
+        // 验证结果：重启后从快照与新日志恢复
+        dao.destroy();
+        dao = open();
+        assertEquals(50, dao.size());
+        assertNull(dao.get("key0"));
+        assertEquals("value50", dao.get("key50"));
+        assertNull(dao.get("key99"));
+        assertEquals("1", dao.get("after"));
+    }
+
+    @Test
+    void testCompactIfNeeded() {
+        dao.set("a", "1", 60);
+
+        // 验证结果：日志未达到阈值时不压缩
+        assertFalse(dao.compactIfNeeded());
+    }
+
+    @Test
+    void testRecoverIgnoresTruncatedTail() throws IOException {
+        dao.set("a", "1", 60);
+        dao.set("b", "2", 60);
+        dao.destroy();
+
+        // 准备测试数据：模拟写入中途宕机，日志末尾留下半条记录
+        Path log = directory.resolve("log-0.log");
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // 执行测试
+        dao = open();
+        dao.set("c", "3", 60);
+        dao.destroy();
+        dao = open();
+
+        // 验证结果：残缺记录被截断，之后的写入可以正常恢复
+        assertEquals("1", dao.get("a"));
+        assertEquals("2", dao.get("b"));
+        assertEquals("3", dao.get("c"));
+    }
+
+    @Test
+    void testRecoverIgnoresCorruptRecord() throws IOException {
+        dao.set("a", "1", 60);
+        long end = dao.getLogBytes();
+        dao.set("b", "2", 60);
+        dao.destroy();
+
+        // 准备测试数据：破坏第二条记录的值
+        Path log = directory.resolve("log-0.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(log, bytes);
+
+        // 执行测试
+        dao = open();
+
+        // 验证结果
+        assertEquals("1", dao.get("a"));
+        assertNull(dao.get("b"));
+        assertEquals(end, dao.getLogBytes());
+    }
+
+    @Test
+    void testSessionRoundTrip() {
+        SaManager.setSaJsonTemplate(new SaJsonTemplateForJackson());
+        SaSession session = new SaSession("satoken:login:session:1");
+        session.set("role", "admin");
+        dao.setSession(session, 60);
+        dao.destroy();
+        dao = open();
+
+        // 验证结果
+        SaSession restored = dao.getSession("satoken:login:session:1");
+        assertNotNull(restored);
+        assertEquals("admin", restored.getString("role"));
+    }
+
+    @Test
+    void testWriteAfterDestroy() {
+        dao.destroy();
+
+        // 验证结果
+        assertThrows(IllegalStateException.class, () -> dao.set("a", "1", 60));
+    }
+
+    private FileSaTokenDao open() {
+        FileSaTokenDao opened = new FileSaTokenDao(directory, 1024 * 1024, now::get);
+        opened.init();
+        return opened;
+    }
+}
@@ -0,0 +1,271 @@
+package com.guducat.backend.session;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import com.guducat.backend.cache.ClusterCacheInvalidator;
+import com.guducat.backend.cache.LocalCache;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis 会话存储集成测试，使用内嵌的 Redis 服务端，两个存储实例模拟共享会话的两个节点
+ */
+class RedisSaTokenDaoTest {
+
+    private static final String TOKEN_KEY = "satoken:login:token:abc";
+
+    private static final String LAST_ACTIVE_KEY = "satoken:login:last-active:abc";
+
+    private static RedisServer server;
+
+    private static RedisURI uri;
+
+    private LocalCache<String, RedisSaTokenDao.CachedValue> nearCacheA;
+
+    private LocalCache<String, RedisSaTokenDao.CachedValue> nearCacheB;
+
+    private RedisSaTokenDao nodeA;
+
+    private RedisSaTokenDao nodeB;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = RedisServer.newRedisServer().port(port).bind("127.0.0.1").setting("save \"\"").build();
+        server.start();
+        uri = RedisURI.create("redis://127.0.0.1:" + port);
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        nearCacheA = new LocalCache<>("token-a", 100, Duration.ofMinutes(1));
+        nearCacheB = new LocalCache<>("token-b", 100, Duration.ofMinutes(1));
+        nodeA = new RedisSaTokenDao(uri, "test:invalidate", nearCacheA);
+        nodeB = new RedisSaTokenDao(uri, "test:invalidate", nearCacheB);
+        nodeA.init();
+        nodeB.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String key : nodeA.searchData("", "", 0, -1, true)) {
+            nodeA.delete(key);
+        }
+        nodeA.destroy();
+        nodeB.destroy();
+    }
+
+    @Test
+    void testReadWrite() {
+        nodeA.set("satoken:login:session:1", "session", 60);
+        nodeA.set("other", "x", SaTokenDao.NEVER_EXPIRE);
+        nodeA.update("satoken:login:session:1", "updated");
+        nodeA.update("missing", "x");
+
+        // 验证结果：update 保留有效期且不创建不存在的键
+        assertEquals("updated", nodeB.get("satoken:login:session:1"));
+        assertEquals(60, nodeB.getTimeout("satoken:login:session:1"), 1);
+        assertEquals(SaTokenDao.NEVER_EXPIRE, nodeB.getTimeout("other"));
+        assertNull(nodeB.get("missing"));
+        assertEquals(SaTokenDao.NOT_VALUE_EXPIRE, nodeB.getTimeout("missing"));
+
+        // 验证结果
+        nodeA.updateTimeout("other", 100);
+        assertEquals(100, nodeB.getTimeout("other"), 1);
+        nodeA.delete("other");
+        assertNull(nodeB.get("other"));
+    }
+
+    @Test
+    void testTokenReadsServedFromNearCache() throws InterruptedException {
+        nodeA.set(TOKEN_KEY, "10001", 60);
+        awaitPendingMessages(nodeB);
+
+        // 执行测试
+        for (int i = 0; i < 100; i++) {
+            assertEquals("10001", nodeB.get(TOKEN_KEY));
+        }
+
+        // 验证结果：只有第一次读取访问 Redis
+        assertEquals(1, nearCacheB.getLoadCount());
+        assertEquals(99, nearCacheB.getHitCount());
+    }
+
+    @Test
+    void testMissingTokenCached() {
+        // 执行测试
+        assertNull(nodeB.get(TOKEN_KEY));
+        assertNull(nodeB.get(TOKEN_KEY));
+
+        // 验证结果：不存在的 token 同样缓存，之后的登录通过失效通知生效
+        assertEquals(1, nearCacheB.getLoadCount());
+        nodeA.set(TOKEN_KEY, "10001", 60);
+        awaitEquals("10001", () -> nodeB.get(TOKEN_KEY));
+    }
+
+    @Test
+    void testLogoutInvalidatesOtherNodes() {
+        nodeA.set(TOKEN_KEY, "10001", 60);
+        assertEquals("10001", nodeB.get(TOKEN_KEY));
+
+        // 执行测试：节点 A 注销
+        nodeA.delete(TOKEN_KEY);
+
+        // 验证结果：节点 B 的本地副本收到通知后失效
+        awaitEquals(null, () -> nodeB.get(TOKEN_KEY));
+    }
+
+    @Test
+    void testKickoutInvalidatesOtherNodes() {
+        nodeA.set(TOKEN_KEY, "10001", 60);
+        assertEquals("10001", nodeB.get(TOKEN_KEY));
+
+        // 执行测试：节点 A 踢人下线，Sa-Token 把 token 的值改为 -5
+        nodeA.update(TOKEN_KEY, "-5");
+
+        // 验证结果
+        assertEquals("-5", nodeA.get(TOKEN_KEY));
+        awaitEquals("-5", () -> nodeB.get(TOKEN_KEY));
+    }
+
+    @Test
+    void testNearCacheHonorsRedisTtl() throws InterruptedException {
+        nodeA.set(TOKEN_KEY, "10001", 1);
+        assertEquals("10001", nodeB.get(TOKEN_KEY));
+
+        // 执行测试
+        Thread.sleep(1100);
+
+        // 验证结果：本地副本不超过其在 Redis 中的有效期
+        assertNull(nodeB.get(TOKEN_KEY));
+    }
+
+    @Test
+    void testSearchData() {
+        nodeA.set("satoken:login:token:t1", "1", 60);
+        nodeA.set("satoken:login:token:t2", "2", 60);
+        nodeA.set("satoken:login:session:1", "s", 60);
+
+        // 验证结果
+        assertEquals(List.of("satoken:login:token:t1", "satoken:login:token:t2"),
+                nodeB.searchData("satoken:login:token:", "", 0, -1, true));
+        assertEquals(List.of("satoken:login:token:t2"),
+                nodeB.searchData("satoken:login:token:", "t2", 0, -1, true));
+    }
+
+    @Test
+    void testLastActiveReadsServedLocally() throws InterruptedException {
+        // 准备测试数据：登录后写入 token 与最后活跃时间，开启续期合并
+        CoalescingSaTokenDao dao = new CoalescingSaTokenDao(nodeA, Duration.ofSeconds(5));
+        dao.set(TOKEN_KEY, "10001", 60);
+        dao.set(LAST_ACTIVE_KEY, "0", 60);
+        awaitPendingMessages(nodeA);
+        RedisClient statsClient = RedisClient.create(uri);
+        try (StatefulRedisConnection<String, String> stats = statsClient.connect()) {
+            stats.sync().configResetstat();
+
+            // 执行测试：4 个刷新周期，每个周期一个请求续期，随后 24 个请求只校验不续期（如未开启自动续期的请求）
+            for (int period = 1; period <= 4; period++) {
+                assertEquals("10001", dao.get(TOKEN_KEY));
+                assertNotNull(dao.get(LAST_ACTIVE_KEY));
+                dao.update(LAST_ACTIVE_KEY, String.valueOf(period));
+                dao.flush();
+                awaitPendingMessages(nodeA);
+                for (int i = 0; i < 24; i++) {
+                    assertEquals("10001", dao.get(TOKEN_KEY));
+                    assertEquals(String.valueOf(period), dao.get(LAST_ACTIVE_KEY));
+                }
+            }
+
+            // 验证结果：token 只读取一次，最后活跃时间首次读取一次、每次写入后读取一次，与请求数无关
+            assertEquals(6, getCalls(stats.sync().info("commandstats")));
+            assertEquals("4", nodeB.get(LAST_ACTIVE_KEY));
+        } finally {
+            statsClient.shutdown();
+        }
+    }
+
+    @Test
+    void testCacheInvalidationBroadcast() {
+        // 准备测试数据：两个节点都缓存了用户 1 的角色
+        LocalCache<Long, String> roleCacheA = new LocalCache<>("role", 100, Duration.ofMinutes(5));
+        LocalCache<Long, String> roleCacheB = new LocalCache<>("role", 100, Duration.ofMinutes(5));
+        ClusterCacheInvalidator invalidatorA = new ClusterCacheInvalidator(nodeA::publish);
+        ClusterCacheInvalidator invalidatorB = new ClusterCacheInvalidator(nodeB::publish);
+        invalidatorA.register(roleCacheA, Long::valueOf);
+        invalidatorB.register(roleCacheB, Long::valueOf);
+        nodeA.addMessageListener(invalidatorA::onMessage);
+        nodeB.addMessageListener(invalidatorB::onMessage);
+        roleCacheA.put(1L, "admin");
+        roleCacheB.put(1L, "admin");
+        roleCacheB.put(2L, "admin");
+
+        // 执行测试：节点 A 修改角色后使缓存失效
+        roleCacheA.invalidate(1L);
+
+        // 验证结果：节点 B 的同一条目随之失效，其他条目不受影响
+        awaitEquals(null, () -> roleCacheB.get(1L));
+        assertEquals("admin", roleCacheB.get(2L));
+    }
+
+    /**
+     * 等待已发布的失效通知送达指定节点：同一频道的消息按发布顺序送达，收到随后发布的标记消息即说明之前的通知已处理
+     */
+    private void awaitPendingMessages(RedisSaTokenDao node) throws InterruptedException {
+        String marker = "marker:" + System.nanoTime();
+        CountDownLatch received = new CountDownLatch(1);
+        node.addMessageListener(message -> {
+            if (marker.equals(message)) {
+                received.countDown();
+            }
+        });
+        nodeA.publish(marker);
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 从 INFO commandstats 中取出 GET 命令的调用次数
+     */
+    private static long getCalls(String commandStats) {
+        Matcher matcher = Pattern.compile("cmdstat_get:calls=(\\d+)").matcher(commandStats);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    /**
+     * 失效通知异步到达，轮询等待
+     */
+    private static void awaitEquals(String expected, Supplier<String> actual) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!Objects.equals(expected, actual.get()) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, actual.get());
+    }
+}
@@ -0,0 +1,35 @@
+-- 测试用表结构（H2，MySQL 兼容模式），与 readme 中的建表语句保持一致
+
+DROP TABLE IF EXISTS `user`;
+
+CREATE TABLE `user` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `username` varchar(50) NOT NULL,
+  `password` varchar(100) NOT NULL,
+  `nickname` varchar(50) DEFAULT NULL,
+  `avatar_url` varchar(255) DEFAULT NULL,
+  `email` varchar(100) DEFAULT NULL,
+  `role` varchar(20) DEFAULT 'user',
+  `version` int NOT NULL DEFAULT 0,
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  `update_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  CONSTRAINT `uk_username` UNIQUE (`username`),
+  CONSTRAINT `uk_email` UNIQUE (`email`)
+);
+
+DROP TABLE IF EXISTS `login_audit`;
+
+CREATE TABLE `login_audit` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_type` varchar(20) NOT NULL,
+  `success` tinyint(1) NOT NULL,
+  `user_id` bigint DEFAULT NULL,
+  `account` varchar(100) DEFAULT NULL,
+  `ip` varchar(45) DEFAULT NULL,
+  `create_time` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`)
+);
+
+CREATE INDEX `idx_login_audit_user` ON `login_audit` (`user_id`, `create_time`);
+CREATE INDEX `idx_login_audit_time` ON `login_audit` (`create_time`);
@@ -64,6 +64,11 @@ export default {
     return api.get('/user/doRegister', { params: userData });
   },
 
+  // 检查用户名、邮箱是否可用
+  checkAvailable(params) {
+    return api.get('/user/checkAvailable', { params });
+  },
+
   // 获取用户信息
   getUserInfo() {
     return api.get('/user/getInfo');